@@ -2,22 +2,73 @@ package edu.pdx.cs.joy.tk24;
 
 import edu.pdx.cs.joy.AbstractAppointmentBook;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Represents an appointment book that belongs to a specific owner
  * and stores multiple {@link Appointment} entries.
  *
  * This class extends {@link AbstractAppointmentBook} and provides
- * functionality to store, retrieve, and sort appointments.
+ * functionality to store, retrieve, and sort appointments.  Appointments
+ * are kept in a balanced search tree, so they are always in sorted order
+ * and each insertion takes O(log n) time.
+ *
+ * A book may also contain {@link RecurringAppointment}s.  Their occurrences are not
+ * stored, but are created as the book is read and merged in sorted order with the
+ * other appointments, only for the span of time that is asked for.
+ *
+ * The book also keeps an index from each calendar day to the appointments that touch
+ * it, so that the appointments on a day or in a week are found with a few hash lookups,
+ * and an index of the busy time of its one-time appointments, so that the number of
+ * booked minutes in any span is found in O(log n) time.  The occurrences of recurring
+ * appointments are not in the index; those in the span are merged in when it is asked for.
+ *
+ * Each appointment that is added to a book is given an id that is unique within the
+ * book, and the ids increase in the order that appointments are added.  A map from ids
+ * to appointments is kept alongside the sorted index, so an appointment can be found,
+ * {@linkplain #remove(long) removed} or {@linkplain #reschedule rescheduled} by its id,
+ * and every index is updated in O(log n) time.
+ *
+ * A {@link #snapshot()} of a book is made in O(1) time and shares its appointments with
+ * the book, so readers such as dumpers and pretty printers can walk a snapshot while
+ * appointments continue to be added to the book.
  *
  */
 public class AppointmentBook extends AbstractAppointmentBook<Appointment> {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Merges of at least this many books are done pairwise in parallel, if they hold
+   * at least {@link ConflictReport#PARALLEL_THRESHOLD} appointments between them.
+   */
+  static final int PARALLEL_MERGE_THRESHOLD = 8;
+
   private final String owner;
-  private final List<Appointment> appointments;
+  private final AppointmentIntervalTree appointments;
+  private volatile List<RecurringAppointment> recurring;
+  private final boolean readOnly;
+  private transient volatile Map<Long, Appointment> ids;
+  private transient volatile DayIndex days;
+  private transient volatile BusyTimeIndex busy;
+  private transient Collection<Appointment> sortedView;
 
   /**
    * Creates a new {@code AppointmentBook} for the given owner.
@@ -26,7 +77,122 @@ public class AppointmentBook extends AbstractAppointmentBook<Appointment> {
    */
   public AppointmentBook(String owner) {
     this.owner = owner;
-    this.appointments = new ArrayList<>();
+    this.appointments = new AppointmentIntervalTree();
+    this.recurring = Collections.emptyList();
+    this.readOnly = false;
+    this.ids = new HashMap<>();
+    this.days = new DayIndex();
+    this.busy = new BusyTimeIndex();
+  }
+
+  /**
+   * Creates a book around an existing tree of appointments.  Its indexes are built when
+   * they are first needed.
+   */
+  private AppointmentBook(String owner, AppointmentIntervalTree appointments,
+                          List<RecurringAppointment> recurring, boolean readOnly) {
+    this.owner = owner;
+    this.appointments = appointments;
+    this.recurring = recurring;
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * Returns an unmodifiable snapshot of this appointment book in O(1) time.  The
+   * snapshot holds the appointments that are in this book now, and is not affected by
+   * appointments that are added to this book later.  It shares its appointments with
+   * this book instead of copying them, so it may be handed to readers on other threads
+   * while appointments continue to be added to this book.
+   *
+   * @return A read-only snapshot of this book
+   */
+  public AppointmentBook snapshot() {
+    if (this.readOnly) {
+      return this;
+    }
+    return new AppointmentBook(this.owner, this.appointments.snapshot(), this.recurring, true);
+  }
+
+  /**
+   * Merges several appointment books into a new book that belongs to the owner of the
+   * first one.
+   *
+   * @param books The books to merge
+   * @return A new book with the appointments of all of the books
+   * @throws IllegalArgumentException if no books are given
+   * @see #merge(boolean, AppointmentBook...)
+   */
+  public static AppointmentBook merge(AppointmentBook... books) {
+    return merge(false, books);
+  }
+
+  /**
+   * Merges several appointment books into a new book that belongs to the owner of the
+   * first one.  The books are left unchanged.
+   *
+   * Because the appointments of each book are already sorted, they are combined with a
+   * k-way merge that keeps the next appointment of each book in a heap, in O(n log k)
+   * time for k books, and the new book is built directly from the merged sequence.  A
+   * large number of large books is instead merged pairwise on the common fork/join pool.
+   * Equal appointments end up next to each other, so duplicates are dropped as they are
+   * merged.  The recurring appointments of every book are added to the new book.
+   *
+   * @param dropDuplicates If {@code true}, appointments that are equal to one from another
+   *                       book, or to another one in the same book, are kept only once
+   * @param books          The books to merge
+   * @return A new book with the appointments of all of the books
+   * @throws IllegalArgumentException if no books are given
+   */
+  public static AppointmentBook merge(boolean dropDuplicates, AppointmentBook... books) {
+    if (books.length == 0) {
+      throw new IllegalArgumentException("At least one appointment book must be merged");
+    }
+
+    Appointment[][] sorted = new Appointment[books.length][];
+    List<RecurringAppointment> recurring = new ArrayList<>();
+    int total = 0;
+    for (int i = 0; i < books.length; i++) {
+      sorted[i] = books[i].appointments.toArray(new Appointment[0]);
+      recurring.addAll(books[i].recurring);
+      total += sorted[i].length;
+    }
+
+    Appointment[] merged;
+    if (books.length >= PARALLEL_MERGE_THRESHOLD && total >= ConflictReport.PARALLEL_THRESHOLD) {
+      merged = ForkJoinPool.commonPool().invoke(new MergeTask(sorted, 0, sorted.length));
+    } else {
+      List<Iterator<Appointment>> sources = new ArrayList<>();
+      for (Appointment[] appointments : sorted) {
+        sources.add(Arrays.asList(appointments).iterator());
+      }
+      merged = new Appointment[total];
+      int i = 0;
+      for (Iterator<Appointment> iterator = new MergingIterator(sources); iterator.hasNext(); ) {
+        merged[i++] = iterator.next();
+      }
+    }
+
+    int size = merged.length;
+    if (dropDuplicates && size > 0) {
+      size = 1;
+      for (int i = 1; i < merged.length; i++) {
+        if (merged[i].compareTo(merged[size - 1]) != 0) {
+          merged[size++] = merged[i];
+        }
+      }
+    }
+
+    return new AppointmentBook(books[0].owner, AppointmentIntervalTree.fromSorted(merged, size),
+      Collections.unmodifiableList(recurring), false);
+  }
+
+  /**
+   * Throws an {@link UnsupportedOperationException} if this book is a snapshot.
+   */
+  private void checkWritable() {
+    if (this.readOnly) {
+      throw new UnsupportedOperationException("Cannot add appointments to a snapshot of " + this.owner + "'s appointment book");
+    }
   }
 
   /**
@@ -40,25 +206,669 @@ public class AppointmentBook extends AbstractAppointmentBook<Appointment> {
   }
 
   /**
-   * Returns all appointments currently in the appointment book.
+   * Returns all appointments currently in the appointment book, including every
+   * occurrence of its recurring appointments.
+   *
+   * The returned collection is an unmodifiable, sorted view of this book that
+   * reflects appointments added after it was returned.  Each iterator over the view
+   * returns the appointments that were in the book when the iterator was created, so
+   * appointments may safely be added while iterating.
    *
    * @return A collection of all {@link Appointment} objects in the book.
    */
   @Override
   public Collection<Appointment> getAppointments() {
-    List<Appointment> sortedAppointments = new ArrayList<>(this.appointments);
-    Collections.sort(sortedAppointments);
-    return sortedAppointments;
+    if (this.sortedView == null) {
+      this.sortedView = Collections.unmodifiableCollection(
+        new WithOccurrences(this.appointments, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+    return this.sortedView;
+  }
+
+  /**
+   * Returns the appointments in this book that were added one at a time, without the
+   * occurrences of its recurring appointments.
+   *
+   * @return An unmodifiable, sorted view of the one-time appointments in this book
+   */
+  public Collection<Appointment> getOneTimeAppointments() {
+    return Collections.unmodifiableCollection(this.appointments);
+  }
+
+  /**
+   * Returns the recurring appointments in this book in the order they were added.
+   *
+   * @return An unmodifiable list of the recurring appointments in this book
+   */
+  public List<RecurringAppointment> getRecurringAppointments() {
+    return this.recurring;
+  }
+
+  /**
+   * Adds a recurring appointment to this appointment book.  Its occurrences are
+   * created when the book is read.
+   *
+   * @param appt The {@link RecurringAppointment} to add.
+   * @throws UnsupportedOperationException if this book is a {@link #snapshot()}
+   */
+  public void addRecurringAppointment(RecurringAppointment appt) {
+    checkWritable();
+    // The list is copied on write so that snapshots and iterators can share it
+    List<RecurringAppointment> recurring = new ArrayList<>(this.recurring);
+    recurring.add(appt);
+    this.recurring = Collections.unmodifiableList(recurring);
   }
 
   /**
    * Adds a new appointment to this appointment book.
    *
    * @param appt The {@link Appointment} to add.
+   * @throws UnsupportedOperationException if this book is a {@link #snapshot()}
    */
   @Override
   public void addAppointment(Appointment appt) {
-    this.appointments.add(appt);
-    Collections.sort(this.appointments);
+    add(appt);
+  }
+
+  /**
+   * Adds a new appointment to this appointment book and returns its id.
+   *
+   * @param appt The {@link Appointment} to add.
+   * @return The id of the appointment in this book
+   * @throws UnsupportedOperationException if this book is a {@link #snapshot()}
+   */
+  public long add(Appointment appt) {
+    checkWritable();
+    long id = this.appointments.insert(appt);
+    addToIndexes(id, appt);
+    return id;
+  }
+
+  /**
+   * Returns the appointment with the given id.
+   *
+   * @param id The id that was returned when the appointment was added
+   * @return The appointment, or {@code null} if this book has no appointment with the id
+   */
+  public Appointment get(long id) {
+    return idIndex().get(id);
+  }
+
+  /**
+   * Returns the id of an appointment in this book that is equal to the given one.
+   *
+   * @param appt The appointment to look for
+   * @return The id of an equal appointment, or -1 if there is none in this book
+   */
+  long idOf(Appointment appt) {
+    return this.appointments.idOf(appt);
+  }
+
+  /**
+   * Removes the appointment with the given id from this book in O(log n) time, plus the
+   * time to recount the busy time of the appointments that overlap it.
+   *
+   * @param id The id that was returned when the appointment was added
+   * @return The removed appointment, or {@code null} if this book has no appointment with the id
+   * @throws UnsupportedOperationException if this book is a {@link #snapshot()}
+   */
+  public Appointment remove(long id) {
+    checkWritable();
+    Appointment appt = idIndex().get(id);
+    if (appt != null) {
+      removeFromIndexes(id, appt);
+    }
+    return appt;
+  }
+
+  /**
+   * Moves the appointment with the given id to a new begin and end time.  The
+   * appointment keeps its id and description.
+   *
+   * @param id       The id that was returned when the appointment was added
+   * @param newBegin The new begin time of the appointment
+   * @param newEnd   The new end time of the appointment
+   * @return The rescheduled appointment, or {@code null} if this book has no appointment with the id
+   * @throws IllegalArgumentException      if the new end time is before the new begin time
+   * @throws UnsupportedOperationException if this book is a {@link #snapshot()}
+   */
+  public Appointment reschedule(long id, LocalDateTime newBegin, LocalDateTime newEnd) {
+    checkWritable();
+    Appointment appt = idIndex().get(id);
+    if (appt == null) {
+      return null;
+    }
+
+    Appointment rescheduled = new Appointment(appt.getDescription(), newBegin, newEnd);
+    removeFromIndexes(id, appt);
+    this.appointments.insert(rescheduled, id);
+    addToIndexes(id, rescheduled);
+    return rescheduled;
+  }
+
+  private void addToIndexes(long id, Appointment appt) {
+    if (this.ids != null) {
+      this.ids.put(id, appt);
+    }
+    if (this.days != null) {
+      this.days.add(appt);
+    }
+    if (this.busy != null) {
+      this.busy.add(appt.getBeginMinute(), appt.getEndMinute());
+    }
+  }
+
+  private void removeFromIndexes(long id, Appointment appt) {
+    this.appointments.remove(appt, id);
+    this.ids.remove(id);
+    if (this.days != null) {
+      this.days.remove(appt);
+    }
+    if (this.busy != null) {
+      // Free the appointment's time, then add back the one-time appointments that shared it
+      this.busy.free(appt.getBeginMinute(), appt.getEndMinute());
+      for (Appointment overlapping : this.appointments.findOverlapping(appt.getBeginTime(), appt.getEndTime())) {
+        this.busy.add(overlapping.getBeginMinute(), overlapping.getEndMinute());
+      }
+    }
+  }
+
+  /**
+   * Adds many appointments to this appointment book at once.  The new appointments
+   * are sorted together and merged with the existing ones in a single pass, which
+   * is much faster than adding them one at a time when loading a large book.
+   *
+   * @param appts The {@link Appointment}s to add.
+   * @throws UnsupportedOperationException if this book is a {@link #snapshot()}
+   */
+  public void addAll(Collection<? extends Appointment> appts) {
+    checkWritable();
+    List<Appointment> batch = Arrays.asList(appts.toArray(new Appointment[0]));
+    long id = this.appointments.insertAll(batch);
+    for (Appointment appt : batch) {
+      addToIndexes(id++, appt);
+    }
+  }
+
+  /**
+   * Adds the appointments in a batch that are not already in this book, dropping any
+   * that are equal to an appointment in the book or to an earlier one in the batch.
+   * Only the one-time appointments of the book are compared, not the occurrences of
+   * its recurring appointments.
+   *
+   * Duplicates are found by hashing, so a large import takes O(n + m) expected time
+   * on top of the cost of {@link #addAll}.  A batch that is small compared to the book
+   * is instead checked against the book's search tree, so the book is not hashed.
+   *
+   * @param appts The {@link Appointment}s to add.
+   * @return The number of appointments that were added
+   * @throws UnsupportedOperationException if this book is a {@link #snapshot()}
+   */
+  public int addAllDistinct(Collection<? extends Appointment> appts) {
+    checkWritable();
+    AppointmentIntervalTree tree = this.appointments;
+    // Looking up m appointments in the tree costs O(m log n), and hashing the book O(n)
+    boolean hashBook = appts.size() >= tree.size() / 8;
+    Set<Appointment> seen = new HashSet<>(hashBook ? tree.size() + appts.size() : appts.size());
+    if (hashBook) {
+      seen.addAll(tree);
+    }
+
+    List<Appointment> distinct = new ArrayList<>(appts.size());
+    for (Appointment appt : appts) {
+      if (seen.add(appt) && (hashBook || !tree.contains(appt))) {
+        distinct.add(appt);
+      }
+    }
+    addAll(distinct);
+    return distinct.size();
+  }
+
+  /**
+   * Finds the one-time appointments that would have to be added to and removed from this
+   * book to give it the one-time appointments of another book.  The two books are
+   * compared with a single linear pass over their appointments in sorted order.
+   *
+   * @param other The book to compare this book to
+   * @return The differences from this book to {@code other}
+   */
+  public AppointmentBookDiff diff(AppointmentBook other) {
+    return AppointmentBookDiff.between(this.appointments.iterator(), other.appointments.iterator());
+  }
+
+  /**
+   * Returns the appointments in this book that begin at or after {@code begin}
+   * and at or before {@code end}.
+   *
+   * The returned collection is an unmodifiable, sorted view of this book rather
+   * than a copy.  Finding the first match takes O(log n) time, and only the
+   * occurrences of recurring appointments that begin in the range are created.
+   *
+   * @param begin The earliest begin time to include
+   * @param end   The latest begin time to include
+   * @return The appointments that begin in the given range
+   */
+  public Collection<Appointment> beginningBetween(LocalDateTime begin, LocalDateTime end) {
+    return Collections.unmodifiableCollection(new WithOccurrences(this.appointments.beginningBetween(begin, end),
+      AppointmentIntervalTree.ceilingMinute(begin), AppointmentIntervalTree.floorMinute(end) + 1));
+  }
+
+  /**
+   * Returns the next {@code n} appointments that begin at or after a time, such as the
+   * next appointments after now.  Finding the first of them takes O(log n) time, and
+   * only the appointments that are returned are visited, so the book is not copied.
+   *
+   * @param from The earliest begin time to include
+   * @param n    The largest number of appointments to return
+   * @return Up to {@code n} appointments that begin at or after {@code from}, in sorted order
+   * @throws IllegalArgumentException if {@code n} is negative
+   */
+  public List<Appointment> upcoming(LocalDateTime from, int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Number of appointments cannot be negative: " + n);
+    }
+
+    List<RecurringAppointment> recurring = this.recurring;
+    long first = AppointmentIntervalTree.ceilingMinute(from);
+    Iterator<Appointment> upcoming = this.appointments.beginningAtOrAfter(first);
+    if (!recurring.isEmpty()) {
+      List<Iterator<Appointment>> sources = new ArrayList<>();
+      sources.add(upcoming);
+      for (RecurringAppointment series : recurring) {
+        sources.add(series.occurrencesBeginning(first, Long.MAX_VALUE));
+      }
+      upcoming = new MergingIterator(sources);
+    }
+
+    List<Appointment> appointments = new ArrayList<>(Math.min(n, 64));
+    while (appointments.size() < n && upcoming.hasNext()) {
+      appointments.add(upcoming.next());
+    }
+    return appointments;
+  }
+
+  /**
+   * Returns all appointments in this book that overlap the given time span.
+   * An appointment overlaps the span if it begins before {@code end} and
+   * ends after {@code begin}.
+   *
+   * @param begin The beginning of the time span (inclusive)
+   * @param end   The end of the time span (exclusive)
+   * @return The overlapping appointments, in sorted order
+   */
+  public List<Appointment> findOverlapping(LocalDateTime begin, LocalDateTime end) {
+    List<RecurringAppointment> recurring = this.recurring;
+    List<Appointment> overlapping = this.appointments.findOverlapping(begin, end);
+    if (recurring.isEmpty()) {
+      return overlapping;
+    }
+
+    List<Iterator<Appointment>> sources = new ArrayList<>();
+    sources.add(overlapping.iterator());
+    long beginMinute = AppointmentIntervalTree.floorMinute(begin);
+    long endMinute = AppointmentIntervalTree.ceilingMinute(end);
+    for (RecurringAppointment series : recurring) {
+      sources.add(series.occurrencesOverlapping(beginMinute, endMinute));
+    }
+    List<Appointment> merged = new ArrayList<>();
+    new MergingIterator(sources).forEachRemaining(merged::add);
+    return merged;
+  }
+
+  /**
+   * Returns the appointments that touch a calendar day: those that overlap the day, and
+   * those of no length that begin on it.  An appointment that spans several days is on
+   * each of them.
+   *
+   * @param date The day
+   * @return The appointments on the day, in sorted order
+   */
+  public List<Appointment> getAppointmentsOn(LocalDate date) {
+    return getAppointmentsOnDays(date, date);
+  }
+
+  /**
+   * Returns the appointments that touch any of a range of calendar days, such as a week.
+   * Each appointment is returned once, even if it spans several of the days.
+   *
+   * @param first The first day of the range
+   * @param last  The last day of the range (inclusive)
+   * @return The appointments on the days, in sorted order
+   * @throws IllegalArgumentException if {@code last} is before {@code first}
+   */
+  public List<Appointment> getAppointmentsOnDays(LocalDate first, LocalDate last) {
+    if (last.isBefore(first)) {
+      throw new IllegalArgumentException("Last day cannot be before first day");
+    }
+
+    List<RecurringAppointment> recurring = this.recurring;
+    DayIndex index = dayIndex();
+    long firstDay = first.toEpochDay();
+    long lastDay = last.toEpochDay();
+    if (firstDay == lastDay && recurring.isEmpty()) {
+      return index.on(firstDay);
+    }
+
+    List<Iterator<Appointment>> sources = new ArrayList<>();
+    sources.add(index.on(firstDay).iterator());
+    for (long day = firstDay + 1; day <= lastDay; day++) {
+      List<Appointment> beginningOnDay = new ArrayList<>();
+      for (Appointment appointment : index.on(day)) {
+        if (DayIndex.firstDay(appointment) == day) {
+          beginningOnDay.add(appointment);
+        }
+      }
+      sources.add(beginningOnDay.iterator());
+    }
+    for (RecurringAppointment series : recurring) {
+      sources.add(series.occurrencesTouching(DayIndex.firstMinute(firstDay), DayIndex.firstMinute(lastDay + 1)));
+    }
+
+    List<Appointment> appointments = new ArrayList<>();
+    new MergingIterator(sources).forEachRemaining(appointments::add);
+    return appointments;
+  }
+
+  /**
+   * Returns the number of minutes between two times during which at least one appointment
+   * is taking place.  Overlapping appointments are only counted once.  Times are rounded
+   * down to the minute.
+   *
+   * @param begin The beginning of the span (inclusive)
+   * @param end   The end of the span (exclusive)
+   * @return The number of booked minutes in the span
+   */
+  public long getBusyMinutes(LocalDateTime begin, LocalDateTime end) {
+    return busyMinutes(AppointmentIntervalTree.floorMinute(begin), AppointmentIntervalTree.floorMinute(end));
+  }
+
+  /**
+   * Returns the number of booked minutes on a range of calendar days, such as a week
+   * or a month.  Overlapping appointments are only counted once.
+   *
+   * @param first The first day of the range
+   * @param last  The last day of the range (inclusive)
+   * @return The number of booked minutes on the days
+   */
+  public long getBusyMinutesOnDays(LocalDate first, LocalDate last) {
+    return busyMinutes(DayIndex.firstMinute(first.toEpochDay()), DayIndex.firstMinute(last.toEpochDay() + 1));
+  }
+
+  /**
+   * Returns the number of busy minutes from {@code from} to {@code to}.  The busy time of
+   * the one-time appointments comes from the index.  The occurrences of recurring
+   * appointments that overlap the span are merged into disjoint periods, and each period
+   * adds the minutes in it that the one-time appointments leave free.
+   */
+  private long busyMinutes(long from, long to) {
+    BusyTimeIndex index = busyTimeIndex();
+    long busy = index.busyMinutes(from, to);
+    List<RecurringAppointment> recurring = this.recurring;
+    if (recurring.isEmpty() || to <= from) {
+      return busy;
+    }
+
+    List<Iterator<Appointment>> sources = new ArrayList<>();
+    for (RecurringAppointment series : recurring) {
+      sources.add(series.occurrencesOverlapping(from, to));
+    }
+    long periodBegin = from;
+    long periodEnd = from;
+    for (Iterator<Appointment> occurrences = new MergingIterator(sources); occurrences.hasNext(); ) {
+      Appointment occurrence = occurrences.next();
+      long begin = Math.max(occurrence.getBeginMinute(), from);
+      long end = Math.min(occurrence.getEndMinute(), to);
+      if (begin > periodEnd) {
+        busy += freeMinutes(index, periodBegin, periodEnd);
+        periodBegin = begin;
+      }
+      periodEnd = Math.max(periodEnd, end);
+    }
+    return busy + freeMinutes(index, periodBegin, periodEnd);
+  }
+
+  private static long freeMinutes(BusyTimeIndex index, long begin, long end) {
+    return end - begin - index.busyMinutes(begin, end);
+  }
+
+  /**
+   * Returns the index of the busy time of the one-time appointments, building it if this
+   * book was deserialized, merged or is a snapshot.
+   */
+  private BusyTimeIndex busyTimeIndex() {
+    if (this.busy == null) {
+      BusyTimeIndex index = new BusyTimeIndex();
+      for (Appointment appointment : this.appointments) {
+        index.add(appointment.getBeginMinute(), appointment.getEndMinute());
+      }
+      this.busy = index;
+    }
+    return this.busy;
+  }
+
+  /**
+   * Returns the map from ids to appointments, building it if this book was deserialized,
+   * merged or is a snapshot.
+   */
+  private Map<Long, Appointment> idIndex() {
+    if (this.ids == null) {
+      Map<Long, Appointment> index = new HashMap<>();
+      this.appointments.forEachWithId((appointment, id) -> index.put(id, appointment));
+      this.ids = index;
+    }
+    return this.ids;
+  }
+
+  /**
+   * Returns the index of appointments by day, building it if this book was deserialized,
+   * merged or is a snapshot.
+   */
+  private DayIndex dayIndex() {
+    if (this.days == null) {
+      DayIndex index = new DayIndex();
+      for (Appointment appointment : this.appointments) {
+        index.add(appointment);
+      }
+      this.days = index;
+    }
+    return this.days;
+  }
+
+  /**
+   * Returns the free time in a window that is not covered by any appointment in this book.
+   * The appointments that overlap the window are found with one query of the interval tree
+   * and walked in begin-time order, merging overlapping appointments into busy periods.
+   * The gaps between busy periods that are at least {@code minLength} long are returned.
+   *
+   * @param windowStart The beginning of the window to search (inclusive)
+   * @param windowEnd   The end of the window to search (exclusive)
+   * @param minLength   The shortest free slot to return
+   * @return The free slots in the window, in order
+   * @throws IllegalArgumentException if the window ends before it starts, or if
+   *                                  {@code minLength} is negative
+   */
+  public List<TimeSlot> findFreeSlots(LocalDateTime windowStart, LocalDateTime windowEnd, Duration minLength) {
+    if (windowEnd.isBefore(windowStart)) {
+      throw new IllegalArgumentException("Window end cannot be before window start");
+    }
+    if (minLength.isNegative()) {
+      throw new IllegalArgumentException("Minimum length cannot be negative: " + minLength);
+    }
+
+    List<TimeSlot> slots = new ArrayList<>();
+    LocalDateTime free = windowStart;
+    for (Appointment appointment : findOverlapping(windowStart, windowEnd)) {
+      if (appointment.getBeginMinute() == appointment.getEndMinute()) {
+        continue;
+      }
+
+      LocalDateTime begin = appointment.getBeginTime();
+      if (begin.isAfter(free)) {
+        addFreeSlot(slots, free, begin, minLength);
+      }
+      LocalDateTime end = appointment.getEndTime();
+      if (end.isAfter(free)) {
+        free = end;
+      }
+    }
+    if (windowEnd.isAfter(free)) {
+      addFreeSlot(slots, free, windowEnd, minLength);
+    }
+    return slots;
+  }
+
+  private static void addFreeSlot(List<TimeSlot> slots, LocalDateTime begin, LocalDateTime end, Duration minLength) {
+    TimeSlot slot = new TimeSlot(begin, end);
+    if (slot.getDuration().compareTo(minLength) >= 0) {
+      slots.add(slot);
+    }
+  }
+
+  /**
+   * Finds every group of overlapping appointments in this book with a single sweep over
+   * the appointments in sorted order.  Large books are swept in parallel.
+   *
+   * @return The clusters of conflicting appointments in this book
+   */
+  public ConflictReport findConflicts() {
+    return ConflictReport.find(getAppointments().toArray(new Appointment[0]));
+  }
+
+  /**
+   * A view of some of the one-time appointments in this book together with the
+   * occurrences of the recurring appointments that begin at or after {@code from}
+   * and before {@code to}.
+   */
+  private class WithOccurrences extends AbstractCollection<Appointment> {
+    private final Collection<Appointment> oneTime;
+    private final long from;
+    private final long to;
+
+    WithOccurrences(Collection<Appointment> oneTime, long from, long to) {
+      this.oneTime = oneTime;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public int size() {
+      List<RecurringAppointment> recurring = AppointmentBook.this.recurring;
+      int size = this.oneTime.size();
+      for (RecurringAppointment series : recurring) {
+        size += series.countBeginning(this.from, this.to);
+      }
+      return size;
+    }
+
+    @Override
+    public Iterator<Appointment> iterator() {
+      List<RecurringAppointment> recurring = AppointmentBook.this.recurring;
+      if (recurring.isEmpty()) {
+        return this.oneTime.iterator();
+      }
+
+      List<Iterator<Appointment>> sources = new ArrayList<>();
+      sources.add(this.oneTime.iterator());
+      for (RecurringAppointment series : recurring) {
+        sources.add(series.occurrencesBeginning(this.from, this.to));
+      }
+      return new MergingIterator(sources);
+    }
+  }
+
+  /**
+   * Merges a range of sorted arrays by splitting it in half, merging each half, and then
+   * merging the two sorted halves in one linear pass.
+   */
+  private static class MergeTask extends RecursiveTask<Appointment[]> {
+    private final Appointment[][] sorted;
+    private final int from;
+    private final int to;
+
+    MergeTask(Appointment[][] sorted, int from, int to) {
+      this.sorted = sorted;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Appointment[] compute() {
+      if (this.to - this.from == 1) {
+        return this.sorted[this.from];
+      }
+
+      int middle = (this.from + this.to) >>> 1;
+      MergeTask left = new MergeTask(this.sorted, this.from, middle);
+      left.fork();
+      Appointment[] right = new MergeTask(this.sorted, middle, this.to).compute();
+      return merge(left.join(), right);
+    }
+
+    private static Appointment[] merge(Appointment[] left, Appointment[] right) {
+      Appointment[] merged = new Appointment[left.length + right.length];
+      int i = 0;
+      int j = 0;
+      int k = 0;
+      while (i < left.length && j < right.length) {
+        merged[k++] = right[j].compareTo(left[i]) < 0 ? right[j++] : left[i++];
+      }
+      while (i < left.length) {
+        merged[k++] = left[i++];
+      }
+      while (j < right.length) {
+        merged[k++] = right[j++];
+      }
+      return merged;
+    }
+  }
+
+  /**
+   * Merges several iterators over sorted appointments into one sorted iterator, using
+   * a heap of the next appointment from each.
+   */
+  private static class MergingIterator implements Iterator<Appointment> {
+    private final PriorityQueue<Source> heap = new PriorityQueue<>();
+
+    MergingIterator(List<Iterator<Appointment>> sources) {
+      for (Iterator<Appointment> source : sources) {
+        if (source.hasNext()) {
+          this.heap.add(new Source(source));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !this.heap.isEmpty();
+    }
+
+    @Override
+    public Appointment next() {
+      Source source = this.heap.poll();
+      if (source == null) {
+        throw new NoSuchElementException();
+      }
+      Appointment next = source.next;
+      if (source.iterator.hasNext()) {
+        source.next = source.iterator.next();
+        this.heap.add(source);
+      }
+      return next;
+    }
+
+    private static class Source implements Comparable<Source> {
+      private final Iterator<Appointment> iterator;
+      private Appointment next;
+
+      Source(Iterator<Appointment> iterator) {
+        this.iterator = iterator;
+        this.next = iterator.next();
+      }
+
+      @Override
+      public int compareTo(Source other) {
+        return this.next.compareTo(other.next);
+      }
+    }
   }
 }
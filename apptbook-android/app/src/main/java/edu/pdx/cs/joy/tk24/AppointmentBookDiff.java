@@ -0,0 +1,182 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The differences between the one-time appointments of two appointment books: the
+ * appointments that were added to the first book to make the second, and those that
+ * were removed from it.  Appointments are compared by value, and an appointment that is
+ * in one book more times than in the other is added or removed that many times.
+ *
+ * A diff is found with {@link AppointmentBook#diff(AppointmentBook)} and can be
+ * {@linkplain #applyTo applied} to a book.  It has a compact text form, so that a book
+ * can be kept in sync by sending only its changes.  Each line of the text form holds a
+ * {@code +} or a {@code -}, the begin and end minutes since the epoch, and the description,
+ * separated by spaces:
+ * <pre>
+ * +29207520 29207580 Lunch
+ * -29209000 29209030 Dentist
+ * </pre>
+ */
+public class AppointmentBookDiff {
+
+  private final List<Appointment> added;
+  private final List<Appointment> removed;
+
+  private AppointmentBookDiff(List<Appointment> added, List<Appointment> removed) {
+    this.added = Collections.unmodifiableList(added);
+    this.removed = Collections.unmodifiableList(removed);
+  }
+
+  /**
+   * Finds the differences between two sorted sequences of appointments in a single pass
+   * over both of them.
+   *
+   * @param from The appointments of the original book, in sorted order
+   * @param to   The appointments of the changed book, in sorted order
+   * @return The appointments that were added and removed
+   */
+  static AppointmentBookDiff between(Iterator<Appointment> from, Iterator<Appointment> to) {
+    List<Appointment> added = new ArrayList<>();
+    List<Appointment> removed = new ArrayList<>();
+    Appointment before = from.hasNext() ? from.next() : null;
+    Appointment after = to.hasNext() ? to.next() : null;
+    while (before != null && after != null) {
+      int compare = before.compareTo(after);
+      if (compare < 0) {
+        removed.add(before);
+        before = from.hasNext() ? from.next() : null;
+      } else if (compare > 0) {
+        added.add(after);
+        after = to.hasNext() ? to.next() : null;
+      } else {
+        before = from.hasNext() ? from.next() : null;
+        after = to.hasNext() ? to.next() : null;
+      }
+    }
+    for (; before != null; before = from.hasNext() ? from.next() : null) {
+      removed.add(before);
+    }
+    for (; after != null; after = to.hasNext() ? to.next() : null) {
+      added.add(after);
+    }
+    return new AppointmentBookDiff(added, removed);
+  }
+
+  /**
+   * Returns the appointments that are in the changed book but not in the original.
+   *
+   * @return The added appointments, in sorted order
+   */
+  public List<Appointment> getAdded() {
+    return this.added;
+  }
+
+  /**
+   * Returns the appointments that are in the original book but not in the changed one.
+   *
+   * @return The removed appointments, in sorted order
+   */
+  public List<Appointment> getRemoved() {
+    return this.removed;
+  }
+
+  /**
+   * Returns whether the two books have the same one-time appointments.
+   *
+   * @return {@code true} if no appointments were added or removed
+   */
+  public boolean isEmpty() {
+    return this.added.isEmpty() && this.removed.isEmpty();
+  }
+
+  /**
+   * Changes a book that has the appointments of the original book into one that has
+   * the appointments of the changed book.  Each removal takes O(log n) time.
+   *
+   * @param book The book to change
+   * @throws IllegalArgumentException if a removed appointment is not in the book
+   */
+  public void applyTo(AppointmentBook book) {
+    for (Appointment appointment : this.removed) {
+      long id = book.idOf(appointment);
+      if (id < 0) {
+        throw new IllegalArgumentException("Appointment is not in the book: " + appointment);
+      }
+      book.remove(id);
+    }
+    book.addAll(this.added);
+  }
+
+  /**
+   * Writes the text form of this diff.
+   *
+   * @param writer The writer to write to
+   * @throws IOException if the diff cannot be written
+   */
+  public void writeTo(Writer writer) throws IOException {
+    write(writer, '-', this.removed);
+    write(writer, '+', this.added);
+    writer.flush();
+  }
+
+  private static void write(Writer writer, char change, List<Appointment> appointments) throws IOException {
+    for (Appointment appointment : appointments) {
+      writer.write(change);
+      writer.write(Integer.toString(appointment.getBeginMinute()));
+      writer.write(' ');
+      writer.write(Integer.toString(appointment.getEndMinute()));
+      writer.write(' ');
+      writer.write(appointment.getDescription());
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * Reads a diff from its text form.
+   *
+   * @param reader The reader to read from
+   * @return The diff
+   * @throws ParserException if the text is malformed or cannot be read
+   */
+  public static AppointmentBookDiff readFrom(Reader reader) throws ParserException {
+    List<Appointment> added = new ArrayList<>();
+    List<Appointment> removed = new ArrayList<>();
+    try (BufferedReader br = new BufferedReader(reader)) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+
+        int endSpace = line.indexOf(' ', line.indexOf(' ') + 1);
+        if (endSpace < 0 || (line.charAt(0) != '+' && line.charAt(0) != '-')) {
+          throw new ParserException("Invalid diff line: " + line);
+        }
+        try {
+          int begin = Integer.parseInt(line.substring(1, line.indexOf(' ')));
+          int end = Integer.parseInt(line.substring(line.indexOf(' ') + 1, endSpace));
+          Appointment appointment = new Appointment(line.substring(endSpace + 1), begin, end);
+          (line.charAt(0) == '+' ? added : removed).add(appointment);
+        } catch (IllegalArgumentException e) {
+          throw new ParserException("Invalid appointment in diff line: " + line, e);
+        }
+      }
+    } catch (IOException e) {
+      throw new ParserException("While reading appointment book diff", e);
+    }
+
+    Collections.sort(added);
+    Collections.sort(removed);
+    return new AppointmentBookDiff(added, removed);
+  }
+}
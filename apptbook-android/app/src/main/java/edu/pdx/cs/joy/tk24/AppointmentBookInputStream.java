@@ -0,0 +1,133 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.AbstractAppointment;
+import edu.pdx.cs.joy.AbstractAppointmentBook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads appointment books that were saved by {@link AppointmentRepository}, both in the
+ * current serialized form and in the form used before appointments were stored as epoch
+ * minutes.
+ *
+ * In the old form an {@link Appointment} held its begin and end times as two
+ * {@link LocalDateTime} fields, and an {@link AppointmentBook} held its appointments in a
+ * {@link List}.  Those classes are recognized by their fields and read as
+ * {@link LegacyAppointment} and {@link LegacyAppointmentBook}, which replace themselves
+ * with a current appointment and book once they have been read.
+ */
+class AppointmentBookInputStream extends ObjectInputStream {
+
+  /**
+   * Creates a stream that reads appointment books from the given stream.
+   *
+   * @param in The stream to read from
+   * @throws IOException if the stream header cannot be read
+   */
+  AppointmentBookInputStream(InputStream in) throws IOException {
+    super(in);
+  }
+
+  /**
+   * Reads an appointment book and all of its appointments.
+   *
+   * @return The appointment book
+   * @throws IOException            if the stream cannot be read or is not an appointment book
+   * @throws ClassNotFoundException if the stream refers to a class that cannot be found
+   */
+  AppointmentBook readAppointmentBook() throws IOException, ClassNotFoundException {
+    Object book = readObject();
+    if (!(book instanceof AppointmentBook)) {
+      throw new IOException("Not an appointment book: " + book);
+    }
+    return (AppointmentBook) book;
+  }
+
+  @Override
+  protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+    ObjectStreamClass desc = super.readClassDescriptor();
+    if (desc.getName().equals(Appointment.class.getName()) && hasField(desc, "beginTime", "Ljava/time/LocalDateTime;")) {
+      return ObjectStreamClass.lookup(LegacyAppointment.class);
+    }
+    if (desc.getName().equals(AppointmentBook.class.getName()) && hasField(desc, "appointments", "Ljava/util/List;")) {
+      return ObjectStreamClass.lookup(LegacyAppointmentBook.class);
+    }
+    return desc;
+  }
+
+  private static boolean hasField(ObjectStreamClass desc, String name, String type) {
+    ObjectStreamField field = desc.getField(name);
+    return field != null && type.equals(field.getTypeString());
+  }
+
+  /**
+   * An appointment in the form it was serialized in before its times were stored as
+   * epoch minutes.  Its fields have the names and types of that form.
+   */
+  private static class LegacyAppointment extends AbstractAppointment {
+    private static final long serialVersionUID = 1L;
+
+    private String description;
+    private LocalDateTime beginTime;
+    private LocalDateTime endTime;
+
+    private Object readResolve() {
+      return new Appointment(this.description, this.beginTime, this.endTime);
+    }
+
+    @Override
+    public String getBeginTimeString() {
+      return this.beginTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    @Override
+    public String getEndTimeString() {
+      return this.endTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    @Override
+    public String getDescription() {
+      return this.description;
+    }
+  }
+
+  /**
+   * An appointment book in the form it was serialized in before its appointments were
+   * kept in an interval tree.  Its fields have the names and types of that form.
+   */
+  private static class LegacyAppointmentBook extends AbstractAppointmentBook<Appointment> {
+    private static final long serialVersionUID = 1L;
+
+    private String owner;
+    private List<Appointment> appointments;
+
+    private Object readResolve() {
+      AppointmentBook book = new AppointmentBook(this.owner);
+      book.addAll(this.appointments);
+      return book;
+    }
+
+    @Override
+    public String getOwnerName() {
+      return this.owner;
+    }
+
+    @Override
+    public Collection<Appointment> getAppointments() {
+      return this.appointments;
+    }
+
+    @Override
+    public void addAppointment(Appointment appt) {
+      this.appointments.add(appt);
+    }
+  }
+}
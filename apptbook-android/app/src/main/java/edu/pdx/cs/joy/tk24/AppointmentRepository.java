@@ -2,9 +2,11 @@ package edu.pdx.cs.joy.tk24;
 
 import android.content.Context;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
 public class AppointmentRepository {
@@ -17,22 +19,34 @@ public class AppointmentRepository {
         this.owner = owner;
     }
 
+    /**
+     * Loads the owner's appointment book, or returns a new, empty book if none has been
+     * saved.  Books saved in older serialized forms are read as well.
+     *
+     * @param owner The owner of the book
+     * @return The owner's appointment book
+     * @throws RuntimeException if a saved book exists but cannot be read, so that callers
+     *                          do not save an empty book over it
+     */
     public AppointmentBook load(String owner) {
+        FileInputStream fis;
         try {
-            FileInputStream fis = context.openFileInput(fileName(owner));
-            ObjectInputStream ois = new ObjectInputStream(fis);
-            AppointmentBook book = (AppointmentBook) ois.readObject();
-            ois.close();
-            return book;
-        } catch (Exception e) {
+            fis = context.openFileInput(fileName(owner));
+        } catch (FileNotFoundException e) {
             return new AppointmentBook(owner);
         }
+
+        try (AppointmentBookInputStream ois = new AppointmentBookInputStream(new BufferedInputStream(fis))) {
+            return ois.readAppointmentBook();
+        } catch (Exception e) {
+            throw new RuntimeException("Error loading appointment book for " + owner, e);
+        }
     }
 
     public void save(AppointmentBook book) {
         try {
             FileOutputStream fos = context.openFileOutput(fileName(owner), Context.MODE_PRIVATE);
-            ObjectOutputStream oos = new ObjectOutputStream(fos);
+            ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(fos));
             oos.writeObject(book);
             oos.close();
         } catch (Exception e) {
@@ -0,0 +1,260 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Parses and formats dates and times in the {@code MM/dd/yyyy h:mm a} pattern that is used
+ * by text files, the command lines and the web server, for example {@code 07/30/2025 2:00 PM}.
+ *
+ * Text in the usual form, with a four-digit year and an upper-case {@code AM} or {@code PM},
+ * is read straight from the characters into minutes since the epoch, and minutes are written
+ * straight into a character array, without a {@link DateTimeFormatter} or any intermediate
+ * objects.  Any other text is handed to a formatter for the same pattern, so that it is
+ * accepted or rejected exactly as it would be by {@link LocalDateTime#parse}, with the same
+ * error message.  The {@code AM} and {@code PM} markers are always in English.
+ */
+final class DateTimeCodec {
+
+  /**
+   * The pattern that this codec reads and writes.
+   */
+  static final String PATTERN = "MM/dd/yyyy h:mm a";
+
+  /**
+   * The formatter that parses text that is not in the usual form.
+   */
+  static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN, Locale.US);
+
+  /**
+   * The formatter for dates without a time, such as the day of a web request.
+   */
+  static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy", Locale.US);
+
+  /**
+   * The most characters that {@link #format(int, char[], int)} writes.
+   */
+  static final int MAX_LENGTH = 19;
+
+  private static final int MINUTES_PER_DAY = 24 * 60;
+  private static final int DAYS_PER_400_YEARS = 146097;
+  private static final int DAYS_0000_03_01_TO_1970 = 719468;
+
+  /**
+   * Returned by {@link #parseUsual} when the text is not in the usual form.
+   */
+  private static final long UNUSUAL = Long.MIN_VALUE;
+
+  private DateTimeCodec() {
+  }
+
+  /**
+   * Parses a date and time.
+   *
+   * @param text The text to parse
+   * @return The date and time
+   * @throws DateTimeParseException if the text is not a valid date and time in the pattern
+   */
+  static LocalDateTime parse(CharSequence text) {
+    long minute = parseUsual(text, 0, text.length());
+    if (minute == UNUSUAL) {
+      return LocalDateTime.parse(text, FORMATTER);
+    }
+    return Appointment.fromEpochMinute(minute);
+  }
+
+  /**
+   * Parses a date without a time in the {@code MM/dd/yyyy} pattern.
+   *
+   * @param text The text to parse
+   * @return The date
+   * @throws DateTimeParseException if the text is not a valid date in the pattern
+   */
+  static LocalDate parseDate(CharSequence text) {
+    return LocalDate.parse(text, DATE_FORMATTER);
+  }
+
+  /**
+   * Parses a date and time into the number of minutes since the epoch.
+   *
+   * @param text The text to parse
+   * @return The number of minutes since 1970-01-01T00:00
+   * @throws DateTimeParseException if the text is not a valid date and time in the pattern
+   */
+  static long parseEpochMinute(CharSequence text) {
+    return parseEpochMinute(text, 0, text.length());
+  }
+
+  /**
+   * Parses the date and time in part of a sequence of characters into the number of
+   * minutes since the epoch.  Text in the usual form is parsed without allocating.
+   *
+   * @param text The characters to parse
+   * @param from The index of the first character of the date and time
+   * @param to   The index after the last character of the date and time
+   * @return The number of minutes since 1970-01-01T00:00
+   * @throws DateTimeParseException if the text is not a valid date and time in the pattern
+   */
+  static long parseEpochMinute(CharSequence text, int from, int to) {
+    long minute = parseUsual(text, from, to);
+    if (minute == UNUSUAL) {
+      LocalDateTime time = LocalDateTime.parse(text.subSequence(from, to), FORMATTER);
+      return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+    return minute;
+  }
+
+  /**
+   * Parses text in the usual form: two-digit month and day, four-digit year, a one- or
+   * two-digit hour from 1 to 12, two-digit minutes and {@code AM} or {@code PM}, separated
+   * exactly as in the pattern, and naming a date that exists.
+   *
+   * @return The number of minutes since the epoch, or {@link #UNUSUAL} if the text is not in
+   *         the usual form
+   */
+  private static long parseUsual(CharSequence text, int from, int to) {
+    int length = to - from;
+    if (length != MAX_LENGTH - 1 && length != MAX_LENGTH) {
+      return UNUSUAL;
+    }
+    int at = from + 11;
+    int hour = length == MAX_LENGTH ? twoDigits(text, at++) : digit(text.charAt(at));
+    if (text.charAt(from + 2) != '/' || text.charAt(from + 5) != '/' || text.charAt(from + 10) != ' '
+      || text.charAt(at + 1) != ':' || text.charAt(at + 4) != ' ' || text.charAt(at + 6) != 'M') {
+      return UNUSUAL;
+    }
+    char marker = text.charAt(at + 5);
+    if (marker != 'A' && marker != 'P') {
+      return UNUSUAL;
+    }
+
+    int month = twoDigits(text, from);
+    int day = twoDigits(text, from + 3);
+    int century = twoDigits(text, from + 6);
+    int yearOfCentury = twoDigits(text, from + 8);
+    int minute = twoDigits(text, at + 2);
+    if (month < 1 || month > 12 || century < 0 || yearOfCentury < 0 || minute < 0 || minute > 59
+      || hour < 1 || hour > 12) {
+      return UNUSUAL;
+    }
+    int year = century * 100 + yearOfCentury;
+    if (year < 1 || day < 1 || day > lengthOfMonth(year, month)) {
+      return UNUSUAL;
+    }
+
+    int hourOfDay = hour % 12 + (marker == 'P' ? 12 : 0);
+    return epochDay(year, month, day) * MINUTES_PER_DAY + hourOfDay * 60 + minute;
+  }
+
+  private static int digit(char c) {
+    return c >= '0' && c <= '9' ? c - '0' : -100;
+  }
+
+  private static int twoDigits(CharSequence text, int at) {
+    return digit(text.charAt(at)) * 10 + digit(text.charAt(at + 1));
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    if (month == 2) {
+      return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+    }
+    return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+
+  /**
+   * Returns the number of days from 1970-01-01 to a date in the proleptic Gregorian
+   * calendar, counting years from March so that the leap day comes last.
+   */
+  private static long epochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(y, 400);
+    int yearOfEra = (int) (y - era * 400);
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_03_01_TO_1970;
+  }
+
+  /**
+   * Formats a date and time.
+   *
+   * @param time The date and time to format
+   * @return The formatted text, for example {@code 07/30/2025 2:00 PM}
+   */
+  static String format(LocalDateTime time) {
+    long minute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    if (minute < Integer.MIN_VALUE || minute > Integer.MAX_VALUE) {
+      return FORMATTER.format(time);
+    }
+    return format((int) minute);
+  }
+
+  /**
+   * Formats a number of minutes since the epoch as a date and time.
+   *
+   * @param epochMinute The number of minutes since 1970-01-01T00:00
+   * @return The formatted text, for example {@code 07/30/2025 2:00 PM}
+   */
+  static String format(int epochMinute) {
+    char[] buffer = new char[MAX_LENGTH];
+    return new String(buffer, 0, format(epochMinute, buffer, 0));
+  }
+
+  /**
+   * Writes a number of minutes since the epoch as a date and time into a character array,
+   * without allocating.  At most {@link #MAX_LENGTH} characters are written.  As with the
+   * {@code yyyy} pattern letters, a year before 1 AD is written as its year of the era.
+   *
+   * @param epochMinute The number of minutes since 1970-01-01T00:00
+   * @param buffer      The array to write into
+   * @param offset      The index at which to write the first character
+   * @return The index after the last character written
+   */
+  static int format(int epochMinute, char[] buffer, int offset) {
+    long z = Math.floorDiv(epochMinute, MINUTES_PER_DAY) + (long) DAYS_0000_03_01_TO_1970;
+    int minuteOfDay = Math.floorMod(epochMinute, MINUTES_PER_DAY);
+    long era = Math.floorDiv(z, DAYS_PER_400_YEARS);
+    int dayOfEra = (int) (z - era * DAYS_PER_400_YEARS);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    int year = (int) (era * 400) + yearOfEra + (month <= 2 ? 1 : 0);
+    if (year < 1) {
+      year = 1 - year;
+    }
+
+    int at = writeTwoDigits(month, buffer, offset);
+    buffer[at++] = '/';
+    at = writeTwoDigits(day, buffer, at);
+    buffer[at++] = '/';
+    at = writeTwoDigits(year / 100, buffer, at);
+    at = writeTwoDigits(year % 100, buffer, at);
+    buffer[at++] = ' ';
+
+    int hour = minuteOfDay / 60 % 12;
+    if (hour == 0) {
+      hour = 12;
+    }
+    if (hour >= 10) {
+      buffer[at++] = '1';
+    }
+    buffer[at++] = (char) ('0' + hour % 10);
+    buffer[at++] = ':';
+    at = writeTwoDigits(minuteOfDay % 60, buffer, at);
+    buffer[at++] = ' ';
+    buffer[at++] = minuteOfDay < 12 * 60 ? 'A' : 'P';
+    buffer[at++] = 'M';
+    return at;
+  }
+
+  private static int writeTwoDigits(int value, char[] buffer, int at) {
+    buffer[at] = (char) ('0' + value / 10);
+    buffer[at + 1] = (char) ('0' + value % 10);
+    return at + 2;
+  }
+}
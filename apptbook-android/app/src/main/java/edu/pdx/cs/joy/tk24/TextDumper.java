@@ -28,13 +28,15 @@ public class TextDumper {
     public void dump(AppointmentBook book) {
         try (PrintWriter pw = new PrintWriter(this.writer)) {
             pw.println(book.getOwnerName());
+            char[] time = new char[DateTimeCodec.MAX_LENGTH];
 
             for (Appointment appointment : book.getAppointments()) {
-                pw.printf("%s | %s | %s%n",
-                        appointment.getDescription(),
-                        appointment.getBeginTimeString(),
-                        appointment.getEndTimeString()
-                );
+                pw.write(appointment.getDescription());
+                pw.write(" | ");
+                pw.write(time, 0, DateTimeCodec.format(appointment.getBeginMinute(), time, 0));
+                pw.write(" | ");
+                pw.write(time, 0, DateTimeCodec.format(appointment.getEndMinute(), time, 0));
+                pw.println();
             }
 
             pw.flush();
@@ -5,8 +5,8 @@ import edu.pdx.cs.joy.ParserException;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A parser for reading appointment books from text format.
@@ -40,6 +40,7 @@ public class TextParser {
       }
 
       AppointmentBook book = new AppointmentBook(owner);
+      List<Appointment> appointments = new ArrayList<>();
       String line;
       while ((line = br.readLine()) != null) {
         String[] parts = line.split("\\|");
@@ -51,13 +52,14 @@ public class TextParser {
         String beginTimeStr = parts[1].trim();
         String endTimeStr = parts[2].trim();
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
-        LocalDateTime beginTime = LocalDateTime.parse(beginTimeStr, formatter);
-        LocalDateTime endTime = LocalDateTime.parse(endTimeStr, formatter);
+        int beginMinute = Appointment.toEpochMinute(DateTimeCodec.parseEpochMinute(beginTimeStr));
+        int endMinute = Appointment.toEpochMinute(DateTimeCodec.parseEpochMinute(endTimeStr));
 
-        book.addAppointment(new Appointment(description, beginTime, endTime));
+        appointments.add(new Appointment(description, beginMinute, endMinute));
 
       }
+
+      book.addAll(appointments);
       return book;
 
     } catch (IOException e) {
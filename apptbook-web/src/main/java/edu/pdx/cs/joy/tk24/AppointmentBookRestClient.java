@@ -73,10 +73,12 @@ public class AppointmentBookRestClient {
    * @param description A description of the appointment
    * @param beginTime The start time of the appointment in MM/dd/yyyy h:mm AM/PM format
    * @param endTime The end time of the appointment in MM/dd/yyyy h:mm AM/PM format
-   * @throws IOException if there is an error communicating with the server
+   * @return The id of the new appointment in the owner's appointment book
+   * @throws IOException if there is an error communicating with the server, or the
+   *                     server does not return an id
    * @throws RestException if the server returns an error response (e.g., invalid parameters)
    */
-  public void addAppointment(String owner, String description, String beginTime, String endTime) throws IOException {
+  public long addAppointment(String owner, String description, String beginTime, String endTime) throws IOException {
     Response response = postToMyURL(Map.of(
             AppointmentBookServlet.OWNER_PARAMETER, owner,
             AppointmentBookServlet.DESCRIPTION_PARAMETER, description,
@@ -84,6 +86,29 @@ public class AppointmentBookRestClient {
             AppointmentBookServlet.END_PARAMETER, endTime
     ));
     throwExceptionIfNotOkayHttpStatus(response);
+
+    String content = response.getContent().trim();
+    try {
+      return Long.parseLong(content);
+    } catch (NumberFormatException ex) {
+      throw new IOException("Server did not return the id of the new appointment: " + content, ex);
+    }
+  }
+
+  /**
+   * Removes one appointment, given by its id, from the specified owner's appointment book.
+   *
+   * @param owner The name of the appointment book owner
+   * @param id The id that was returned when the appointment was added
+   * @throws IOException if there is an error communicating with the server
+   * @throws RestException if the server has no such appointment
+   */
+  public void removeAppointment(String owner, long id) throws IOException {
+    Response response = http.delete(Map.of(
+            AppointmentBookServlet.OWNER_PARAMETER, owner,
+            AppointmentBookServlet.ID_PARAMETER, String.valueOf(id)
+    ));
+    throwExceptionIfNotOkayHttpStatus(response);
   }
 
   /**
@@ -147,6 +172,43 @@ public class AppointmentBookRestClient {
     return response.getContent();
   }
 
+  /**
+   * Retrieves the appointments for the specified owner that fall on the given day,
+   * including appointments that began on an earlier day. The appointments are
+   * returned as a text representation formatted using TextDumper.
+   *
+   * @param owner The name of the appointment book owner
+   * @param day The day to retrieve appointments for (MM/dd/yyyy format)
+   * @return A string containing the appointments on that day in text format
+   * @throws IOException if there is an error communicating with the server
+   */
+  public String getAppointmentsOn(String owner, String day) throws IOException {
+    Response response = http.get(Map.of(
+            AppointmentBookServlet.OWNER_PARAMETER, owner,
+            AppointmentBookServlet.DAY_PARAMETER, day
+    ));
+    throwExceptionIfNotOkayHttpStatus(response);
+    return response.getContent();
+  }
+
+  /**
+   * Retrieves the next appointments for the specified owner that begin after the
+   * current time on the server. Only those appointments are sent, formatted using
+   * TextDumper, rather than the whole appointment book.
+   *
+   * @param owner The name of the appointment book owner
+   * @param count The largest number of appointments to retrieve
+   * @return A string containing the upcoming appointments in text format
+   * @throws IOException if there is an error communicating with the server
+   */
+  public String getUpcomingAppointments(String owner, int count) throws IOException {
+    Response response = http.get(Map.of(
+            AppointmentBookServlet.OWNER_PARAMETER, owner,
+            AppointmentBookServlet.NEXT_PARAMETER, String.valueOf(count)
+    ));
+    throwExceptionIfNotOkayHttpStatus(response);
+    return response.getContent();
+  }
 
   /**
    * Retrieves and parses the complete appointment book for the specified owner.
@@ -7,12 +7,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
 import static jakarta.xml.bind.DatatypeConverter.parseDateTime;
-import java.time.format.DateTimeFormatter;
 
 
 /**
@@ -26,12 +26,17 @@ public class AppointmentBookServlet extends HttpServlet
     static final String DESCRIPTION_PARAMETER = "description";
     static final String BEGIN_PARAMETER = "begin";
     static final String END_PARAMETER = "end";
+    static final String DAY_PARAMETER = "day";
+    static final String ID_PARAMETER = "id";
+    static final String NEXT_PARAMETER = "next";
 
     private final Map<String, AppointmentBook> AppointmentBooks = new HashMap<>();
 
     /**
      * Handles HTTP GET requests to retrieve appointments. Can return appointments
-     * for a specific owner, filtered by date range, or all appointments.
+     * for a specific owner, filtered by date range or by a single day ("MM/dd/yyyy"),
+     * the next N appointments that begin after now (or after the begin parameter),
+     * or all appointments.
      *
      * @param request the HTTP servlet request containing query parameters
      * @param response the HTTP servlet response to write the appointment data to
@@ -45,9 +50,32 @@ public class AppointmentBookServlet extends HttpServlet
         String owner = getParameter(OWNER_PARAMETER, request );
         String begin = getParameter(BEGIN_PARAMETER, request);
         String end = getParameter(END_PARAMETER, request);
+        String day = getParameter(DAY_PARAMETER, request);
+        String next = getParameter(NEXT_PARAMETER, request);
 
+        if (owner != null && next != null) {
+            AppointmentBook book = this.AppointmentBooks.get(owner);
+            if (book == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            try {
+                int count = Integer.parseInt(next);
+                LocalDateTime from = begin == null ? LocalDateTime.now() : parseDateTime(begin);
 
-        if (owner != null && begin != null && end != null) {
+                PrintWriter pw = response.getWriter();
+                new TextDumper(pw).dump(owner, book.upcoming(from, count));
+                response.setStatus(HttpServletResponse.SC_OK);
+            } catch (NumberFormatException ex) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid number of appointments: " + next);
+            } catch (IllegalArgumentException ex) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            } catch (DateTimeParseException ex) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid begin date format: " + ex.getMessage());
+            }
+
+        } else if (owner != null && begin != null && end != null) {
             AppointmentBook book = this.AppointmentBooks.get(owner);
             if (book == null) {
                 response.setStatus(HttpServletResponse.SC_NOT_FOUND);
@@ -58,22 +86,30 @@ public class AppointmentBookServlet extends HttpServlet
                 LocalDateTime beginTime = parseDateTime(begin);
                 LocalDateTime endTime = parseDateTime(end);
 
-                AppointmentBook filtered = new AppointmentBook(owner);
-                for (Appointment appt : book.getAppointments()) {
-                    LocalDateTime start = appt.getBeginTime();
-                    if ((start.isEqual(beginTime) || start.isAfter(beginTime)) &&
-                            (start.isBefore(endTime) || start.isEqual(endTime))) {
-                        filtered.addAppointment(appt);
-                    }
-                }
-
                 PrintWriter pw = response.getWriter();
-                new TextDumper(pw).dump(filtered);
+                new TextDumper(pw).dump(owner, book.snapshot().beginningBetween(beginTime, endTime));
                 response.setStatus(HttpServletResponse.SC_OK);
             } catch (DateTimeParseException ex) {
                 response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid begin or end date format: " + ex.getMessage());
             }
 
+        } else if (owner != null && day != null) {
+            AppointmentBook book = this.AppointmentBooks.get(owner);
+            if (book == null) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+
+            try {
+                LocalDate date = DateTimeCodec.parseDate(day);
+
+                PrintWriter pw = response.getWriter();
+                new TextDumper(pw).dump(owner, book.snapshot().getAppointmentsOn(date));
+                response.setStatus(HttpServletResponse.SC_OK);
+            } catch (DateTimeParseException ex) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid day format: " + ex.getMessage());
+            }
+
         } else if (owner != null) {
             log("GET " + owner);
             writeDefinition(owner, response);
@@ -86,10 +122,11 @@ public class AppointmentBookServlet extends HttpServlet
 
     /**
      * Handles HTTP POST requests to add new appointments. Creates a new appointment
-     * with owner, description, begin time, and end time parameters.
+     * with owner, description, begin time, and end time parameters. The body of the
+     * response is the id of the new appointment in its owner's book, and nothing else.
      *
      * @param request the HTTP servlet request containing the appointment parameters
-     * @param response the HTTP servlet response to write confirmation message to
+     * @param response the HTTP servlet response to write the id of the new appointment to
      * @throws IOException if an error occurs while writing to the response
      */
     @Override
@@ -134,11 +171,11 @@ public class AppointmentBookServlet extends HttpServlet
             LocalDateTime beginDate = parseDateTime(beginTime);
             LocalDateTime endDate = parseDateTime(endTime);
 
-            Appointment appointment = new Appointment(description, beginDate, endDate);
-            book.addAppointment(appointment);
+            Appointment appointment = new Appointment(DescriptionPool.global().canonicalize(description), beginDate, endDate);
+            long id = book.add(appointment);
 
             PrintWriter pw = response.getWriter();
-            pw.println("Added appointment: " + description + " from " + beginTime + " to " + endTime + " for " + owner);
+            pw.println(id);
             pw.flush();
 
             response.setStatus( HttpServletResponse.SC_OK);
@@ -147,13 +184,17 @@ public class AppointmentBookServlet extends HttpServlet
             String message = "Invalid date/time format: " + ex.getMessage();
             response.sendError(HttpServletResponse.SC_BAD_REQUEST, message);
         }
+        catch(IllegalArgumentException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+        }
 
 
     }
 
     /**
-     * Handles HTTP DELETE requests by removing all appointment books.
-     * This operation is primarily for testing purposes.
+     * Handles HTTP DELETE requests. With owner and id parameters, removes the appointment
+     * with that id from the owner's book. Otherwise removes all appointment books, which
+     * is primarily for testing purposes.
      *
      * @param request the HTTP servlet request
      * @param response the HTTP servlet response to write confirmation message to
@@ -163,6 +204,13 @@ public class AppointmentBookServlet extends HttpServlet
     protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws IOException {
         response.setContentType("text/plain");
 
+        String owner = getParameter(OWNER_PARAMETER, request);
+        String id = getParameter(ID_PARAMETER, request);
+        if (owner != null && id != null) {
+            deleteAppointment(owner, id, response);
+            return;
+        }
+
         log("DELETE all appointment books");
 
         this.AppointmentBooks.clear();
@@ -175,6 +223,40 @@ public class AppointmentBookServlet extends HttpServlet
 
     }
 
+    /**
+     * Removes one appointment, given by its id, from an owner's appointment book.
+     * Responds with 404 (Not Found) if the owner has no book or no appointment with the id.
+     *
+     * @param owner the name of the appointment book owner
+     * @param id the id of the appointment, as returned when it was added
+     * @param response the HTTP servlet response to write confirmation message to
+     * @throws IOException if an error occurs while writing to the response
+     */
+    private void deleteAppointment(String owner, String id, HttpServletResponse response) throws IOException {
+        log("DELETE " + owner + " -> " + id);
+
+        long appointmentId;
+        try {
+            appointmentId = Long.parseLong(id);
+        } catch (NumberFormatException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid appointment id: " + id);
+            return;
+        }
+
+        AppointmentBook book = this.AppointmentBooks.get(owner);
+        Appointment removed = book == null ? null : book.remove(appointmentId);
+        if (removed == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No appointment " + id + " for " + owner);
+            return;
+        }
+
+        PrintWriter pw = response.getWriter();
+        pw.println("Deleted appointment: " + removed.getDescription() + " for " + owner);
+        pw.flush();
+
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
     /**
      * Writes an error message about a missing required parameter to the HTTP response.
      * Sets the HTTP status to 412 (Precondition Failed) and includes an error message
@@ -212,8 +294,9 @@ public class AppointmentBookServlet extends HttpServlet
 
         } else {
 
+            // Dump a snapshot, so that appointments posted meanwhile don't disturb the dump
             TextDumper dumper = new TextDumper(pw);
-            dumper.dump(book);
+            dumper.dump(book.snapshot());
         }
         pw.flush();
         response.setStatus(HttpServletResponse.SC_OK);
@@ -233,7 +316,7 @@ public class AppointmentBookServlet extends HttpServlet
 
         for (AppointmentBook book : AppointmentBooks.values()) {
             TextDumper dumper = new TextDumper(pw);
-            dumper.dump(book);
+            dumper.dump(book.snapshot());
         }
 
         response.setStatus( HttpServletResponse.SC_OK );
@@ -268,6 +351,16 @@ public class AppointmentBookServlet extends HttpServlet
         return this.AppointmentBooks.get(owner);
     }
 
+    /**
+     * Logs how well the shared description pool deduplicated descriptions while the
+     * servlet was in service.
+     */
+    @Override
+    public void destroy() {
+        log("Description pool: " + DescriptionPool.global());
+        super.destroy();
+    }
+
     /**
      * Logs a message to the console. This method overrides the default servlet
      * logging behavior to output messages to System.out for easier debugging.
@@ -288,7 +381,6 @@ public class AppointmentBookServlet extends HttpServlet
      * @throws DateTimeParseException if the string cannot be parsed with the expected format
      */
     private LocalDateTime parseDateTime(String dateTimeString) throws DateTimeParseException {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
-        return LocalDateTime.parse(dateTimeString, formatter);
+        return DateTimeCodec.parse(dateTimeString);
     }
 }
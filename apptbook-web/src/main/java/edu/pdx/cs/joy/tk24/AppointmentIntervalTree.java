@@ -0,0 +1,620 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A balanced (AVL) search tree of {@link Appointment}s that is augmented with the
+ * latest end time found in each subtree.
+ *
+ * Appointments are kept in their natural order, so the tree can be walked in sorted
+ * order, and the augmented end times let overlap queries skip every subtree that
+ * cannot contain a match.  Each appointment is given a unique id when it is inserted,
+ * and the ids increase in the order of insertion.  Equal appointments are allowed; they
+ * are ordered by their ids.
+ *
+ * The nodes of the tree are immutable.  Adding an appointment copies only the
+ * O(log n) nodes on the path from the root to the new node, and the rest of the
+ * tree is shared with the version before the addition.  A {@link #snapshot()} of
+ * the tree is therefore made in O(1) time, and an iterator walks the version of the
+ * tree that existed when it was created, however the tree changes afterwards.
+ *
+ * As a {@link java.util.Collection}, the tree iterates over its appointments in
+ * sorted order.
+ */
+class AppointmentIntervalTree extends AbstractCollection<Appointment> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Batches at least this large are sorted with {@link Arrays#parallelSort(Object[])}
+   */
+  static final int PARALLEL_SORT_THRESHOLD = 10_000;
+
+  private transient volatile Node root;
+  private long nextSequence;
+
+  /**
+   * Creates a new, empty tree.
+   */
+  AppointmentIntervalTree() {
+  }
+
+  private AppointmentIntervalTree(Node root, long nextSequence) {
+    this.root = root;
+    this.nextSequence = nextSequence;
+  }
+
+  /**
+   * Creates a tree from appointments that are already sorted in O(n) time.  The
+   * appointments are given ids in sorted order, starting at zero.
+   *
+   * @param sorted The appointments, sorted in their natural order
+   * @param length The number of appointments at the start of the array to use
+   * @return A tree of the appointments
+   */
+  static AppointmentIntervalTree fromSorted(Appointment[] sorted, int length) {
+    long[] sequences = new long[length];
+    for (int i = 0; i < length; i++) {
+      sequences[i] = i;
+    }
+    return new AppointmentIntervalTree(build(sorted, sequences, 0, length), length);
+  }
+
+  /**
+   * Returns a tree that holds the appointments in this tree now, and that is not
+   * affected by later changes to this tree.  The two trees share all of their nodes.
+   *
+   * @return A snapshot of this tree
+   */
+  AppointmentIntervalTree snapshot() {
+    return new AppointmentIntervalTree(this.root, this.nextSequence);
+  }
+
+  /**
+   * Adds an appointment to this tree in O(log n) time.
+   *
+   * @param appointment The appointment to add
+   * @return The id given to the appointment
+   */
+  long insert(Appointment appointment) {
+    long id = this.nextSequence++;
+    this.root = insert(this.root, appointment, id);
+    return id;
+  }
+
+  /**
+   * Adds an appointment with an id that was given by this tree and is not in use,
+   * such as the id of an appointment that was removed to be rescheduled.
+   *
+   * @param appointment The appointment to add
+   * @param id          The id of the appointment
+   */
+  void insert(Appointment appointment, long id) {
+    this.root = insert(this.root, appointment, id);
+  }
+
+  /**
+   * Adds a batch of appointments to this tree.  Small batches are inserted one at a
+   * time.  Larger batches are sorted once, merged in a single linear pass with the
+   * appointments already in the tree, and the tree is rebuilt from the merged
+   * sequence in O(n + m) time.
+   *
+   * The appointments are given consecutive ids in the order of the batch.
+   *
+   * @param batch The appointments to add
+   * @return The id given to the first appointment in the batch
+   */
+  long insertAll(Collection<? extends Appointment> batch) {
+    long firstId = this.nextSequence;
+    int size = size();
+    if (batch.size() < size / Math.max(1, height(this.root))) {
+      // Inserting a few appointments one at a time is cheaper than rebuilding
+      for (Appointment appointment : batch) {
+        insert(appointment);
+      }
+      return firstId;
+    }
+
+    Node[] added = new Node[batch.size()];
+    int i = 0;
+    for (Appointment appointment : batch) {
+      added[i] = new Node(appointment, firstId + i, null, null);
+      i++;
+    }
+    // Both sorts are stable, so equal appointments stay in the order of their ids
+    Comparator<Node> order = (a, b) -> a.appointment.compareTo(b.appointment);
+    if (added.length >= PARALLEL_SORT_THRESHOLD) {
+      Arrays.parallelSort(added, order);
+    } else {
+      Arrays.sort(added, order);
+    }
+
+    Appointment[] merged = new Appointment[size + added.length];
+    long[] sequences = new long[merged.length];
+    int j = 0;
+    int k = 0;
+    // Existing appointments were inserted first, so they win ties
+    for (Iterator<Node> existing = new NodeIterator(this.root); existing.hasNext(); ) {
+      Node node = existing.next();
+      while (j < added.length && added[j].appointment.compareTo(node.appointment) < 0) {
+        sequences[k] = added[j].sequence;
+        merged[k++] = added[j++].appointment;
+      }
+      sequences[k] = node.sequence;
+      merged[k++] = node.appointment;
+    }
+    for (; j < added.length; j++) {
+      sequences[k] = added[j].sequence;
+      merged[k++] = added[j].appointment;
+    }
+
+    this.nextSequence += added.length;
+    this.root = build(merged, sequences, 0, merged.length);
+    return firstId;
+  }
+
+  /**
+   * Removes an appointment from this tree in O(log n) time.
+   *
+   * @param appointment The appointment to remove
+   * @param id          The id that was given to the appointment
+   * @return {@code true} if the appointment was in this tree
+   */
+  boolean remove(Appointment appointment, long id) {
+    Node root = this.root;
+    Node removed = remove(root, appointment, id);
+    this.root = removed;
+    return removed != root;
+  }
+
+  /**
+   * Passes each appointment in this tree and its id to an action, in sorted order.
+   *
+   * @param action The action to perform
+   */
+  void forEachWithId(ObjLongConsumer<Appointment> action) {
+    for (Iterator<Node> nodes = new NodeIterator(this.root); nodes.hasNext(); ) {
+      Node node = nodes.next();
+      action.accept(node.appointment, node.sequence);
+    }
+  }
+
+  /**
+   * Builds a perfectly balanced tree from already sorted appointments.
+   */
+  private static Node build(Appointment[] appointments, long[] sequences, int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+
+    int middle = (from + to) >>> 1;
+    return new Node(appointments[middle], sequences[middle],
+      build(appointments, sequences, from, middle), build(appointments, sequences, middle + 1, to));
+  }
+
+  /**
+   * Returns the number of appointments in this tree.
+   *
+   * @return The number of appointments in this tree
+   */
+  @Override
+  public int size() {
+    return this.root == null ? 0 : this.root.size;
+  }
+
+  /**
+   * Returns whether this tree holds an appointment equal to the given object, in
+   * O(log n) time.
+   *
+   * @param o The object to look for
+   * @return {@code true} if an equal appointment is in this tree
+   */
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof Appointment && idOf((Appointment) o) >= 0;
+  }
+
+  /**
+   * Returns the id of an appointment in this tree that is equal to the given one, in
+   * O(log n) time.
+   *
+   * @param appointment The appointment to look for
+   * @return The id of an equal appointment, or -1 if there is none in this tree
+   */
+  long idOf(Appointment appointment) {
+    Node node = this.root;
+    while (node != null) {
+      int compare = appointment.compareTo(node.appointment);
+      if (compare == 0) {
+        return node.sequence;
+      }
+      node = compare < 0 ? node.left : node.right;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns an iterator over the appointments in this tree, in sorted order.
+   *
+   * @return An in-order iterator over this tree
+   */
+  @Override
+  public Iterator<Appointment> iterator() {
+    return new InOrderIterator(new NodeIterator(this.root), Long.MAX_VALUE);
+  }
+
+  /**
+   * Returns a view of the appointments that begin at or after {@code from} and at or
+   * before {@code to}.  The view is backed by this tree, so it is not copied: its
+   * iterator seeks to the first match in O(log n) time and its size is computed from
+   * the sizes of the subtrees.
+   *
+   * @param from The earliest begin time to include
+   * @param to   The latest begin time to include
+   * @return A sorted view of the appointments that begin in the range
+   */
+  Collection<Appointment> beginningBetween(LocalDateTime from, LocalDateTime to) {
+    return new BeginTimeRange(ceilingMinute(from), floorMinute(to));
+  }
+
+  /**
+   * Returns an iterator over the appointments that begin at or after the given minute,
+   * in sorted order.  The iterator seeks to the first of them in O(log n) time.
+   *
+   * @param from The earliest begin minute to include, in minutes since the epoch
+   * @return An iterator over the appointments that begin at or after {@code from}
+   */
+  Iterator<Appointment> beginningAtOrAfter(long from) {
+    return new InOrderIterator(new NodeIterator(this.root, from), Long.MAX_VALUE);
+  }
+
+  /**
+   * Counts the appointments that begin before the given minute.
+   */
+  private int countBeginningBefore(long minute) {
+    int count = 0;
+    Node node = this.root;
+    while (node != null) {
+      if (node.appointment.getBeginMinute() < minute) {
+        count += Node.size(node.left) + 1;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the last whole minute at or before the given time.
+   */
+  static long floorMinute(LocalDateTime time) {
+    return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+  }
+
+  /**
+   * Returns the first whole minute at or after the given time.
+   */
+  static long ceilingMinute(LocalDateTime time) {
+    long second = time.toEpochSecond(ZoneOffset.UTC);
+    long minute = Math.floorDiv(second, 60);
+    return Math.floorMod(second, 60) == 0 && time.getNano() == 0 ? minute : minute + 1;
+  }
+
+  /**
+   * Returns, in sorted order, every appointment that overlaps the time span that
+   * starts at {@code begin} (inclusive) and ends at {@code end} (exclusive).  An
+   * appointment overlaps the span if it begins before {@code end} and ends after
+   * {@code begin}.
+   *
+   * @param begin The beginning of the time span
+   * @param end   The end of the time span
+   * @return The overlapping appointments
+   */
+  List<Appointment> findOverlapping(LocalDateTime begin, LocalDateTime end) {
+    List<Appointment> overlapping = new ArrayList<>();
+    collectOverlapping(this.root, floorMinute(begin), ceilingMinute(end), overlapping);
+    return overlapping;
+  }
+
+  private static void collectOverlapping(Node node, long begin, long end, List<Appointment> overlapping) {
+    if (node == null || node.maxEnd <= begin) {
+      // Nothing in this subtree ends after the span begins
+      return;
+    }
+
+    collectOverlapping(node.left, begin, end, overlapping);
+
+    if (node.appointment.getBeginMinute() >= end) {
+      // This appointment, and everything to its right, begins too late
+      return;
+    }
+
+    if (node.appointment.getEndMinute() > begin) {
+      overlapping.add(node.appointment);
+    }
+
+    collectOverlapping(node.right, begin, end, overlapping);
+  }
+
+  /**
+   * Returns a copy of the subtree rooted at {@code node} with an appointment added.
+   * Only the nodes on the path to the new node are copied.
+   */
+  private static Node insert(Node node, Appointment appointment, long sequence) {
+    if (node == null) {
+      return new Node(appointment, sequence, null, null);
+    }
+
+    if (compare(appointment, sequence, node) < 0) {
+      return balance(node.appointment, node.sequence, insert(node.left, appointment, sequence), node.right);
+    } else {
+      return balance(node.appointment, node.sequence, node.left, insert(node.right, appointment, sequence));
+    }
+  }
+
+  /**
+   * Returns a copy of the subtree rooted at {@code node} without an appointment, or
+   * {@code node} itself if the appointment is not in the subtree.  Only the nodes on
+   * the path to the removed node are copied.
+   */
+  private static Node remove(Node node, Appointment appointment, long sequence) {
+    if (node == null) {
+      return null;
+    }
+
+    int compare = compare(appointment, sequence, node);
+    if (compare < 0) {
+      Node left = remove(node.left, appointment, sequence);
+      return left == node.left ? node : balance(node.appointment, node.sequence, left, node.right);
+    } else if (compare > 0) {
+      Node right = remove(node.right, appointment, sequence);
+      return right == node.right ? node : balance(node.appointment, node.sequence, node.left, right);
+    }
+
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.appointment, successor.sequence, node.left, removeFirst(node.right));
+  }
+
+  private static Node removeFirst(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node.appointment, node.sequence, removeFirst(node.left), node.right);
+  }
+
+  private static int compare(Appointment appointment, long sequence, Node node) {
+    int compare = appointment.compareTo(node.appointment);
+    return compare != 0 ? compare : Long.compare(sequence, node.sequence);
+  }
+
+  /**
+   * Creates a node for an appointment with the given subtrees, rotating to restore
+   * the balance if the heights of the subtrees differ by two.
+   */
+  private static Node balance(Appointment appointment, long sequence, Node left, Node right) {
+    int balance = height(left) - height(right);
+
+    if (balance > 1) {
+      if (height(left.left) < height(left.right)) {
+        Node pivot = left.right;
+        return new Node(pivot.appointment, pivot.sequence,
+          new Node(left.appointment, left.sequence, left.left, pivot.left),
+          new Node(appointment, sequence, pivot.right, right));
+      }
+      return new Node(left.appointment, left.sequence, left.left,
+        new Node(appointment, sequence, left.right, right));
+
+    } else if (balance < -1) {
+      if (height(right.right) < height(right.left)) {
+        Node pivot = right.left;
+        return new Node(pivot.appointment, pivot.sequence,
+          new Node(appointment, sequence, left, pivot.left),
+          new Node(right.appointment, right.sequence, pivot.right, right.right));
+      }
+      return new Node(right.appointment, right.sequence,
+        new Node(appointment, sequence, left, right.left), right.right);
+    }
+
+    return new Node(appointment, sequence, left, right);
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  /**
+   * Writes the appointments and their ids in sorted order instead of the nodes of the tree.
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size());
+    for (Iterator<Node> nodes = new NodeIterator(this.root); nodes.hasNext(); ) {
+      Node node = nodes.next();
+      out.writeObject(node.appointment);
+      out.writeLong(node.sequence);
+    }
+  }
+
+  /**
+   * Rebuilds the tree from the sorted appointments written by {@link #writeObject}.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    Appointment[] appointments = new Appointment[in.readInt()];
+    long[] sequences = new long[appointments.length];
+    for (int i = 0; i < appointments.length; i++) {
+      appointments[i] = (Appointment) in.readObject();
+      sequences[i] = in.readLong();
+    }
+    this.root = build(appointments, sequences, 0, appointments.length);
+  }
+
+  /**
+   * Walks the nodes of a tree in order using an explicit stack of the nodes whose
+   * left subtrees are being visited.
+   */
+  private static class NodeIterator implements Iterator<Node> {
+    private final Deque<Node> path = new ArrayDeque<>();
+
+    NodeIterator(Node root) {
+      pushLeft(root);
+    }
+
+    /**
+     * Starts the walk at the first node that begins at or after the given minute.
+     */
+    NodeIterator(Node root, long from) {
+      Node node = root;
+      while (node != null) {
+        if (node.appointment.getBeginMinute() < from) {
+          node = node.right;
+        } else {
+          this.path.push(node);
+          node = node.left;
+        }
+      }
+    }
+
+    /**
+     * Returns the next node without advancing past it, or null at the end of the walk.
+     */
+    Node peek() {
+      return this.path.peek();
+    }
+
+    private void pushLeft(Node node) {
+      for (; node != null; node = node.left) {
+        this.path.push(node);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !this.path.isEmpty();
+    }
+
+    @Override
+    public Node next() {
+      if (this.path.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+
+      Node node = this.path.pop();
+      pushLeft(node.right);
+      return node;
+    }
+  }
+
+  /**
+   * Iterates over the appointments in the tree, stopping after the last appointment
+   * that begins at or before a given minute.
+   */
+  private static class InOrderIterator implements Iterator<Appointment> {
+    private final NodeIterator nodes;
+    private final long lastBegin;
+
+    InOrderIterator(NodeIterator nodes, long lastBegin) {
+      this.nodes = nodes;
+      this.lastBegin = lastBegin;
+    }
+
+    @Override
+    public boolean hasNext() {
+      Node next = this.nodes.peek();
+      return next != null && next.appointment.getBeginMinute() <= this.lastBegin;
+    }
+
+    @Override
+    public Appointment next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return this.nodes.next().appointment;
+    }
+  }
+
+  /**
+   * A view of the appointments whose begin minutes fall in an inclusive range.
+   */
+  private class BeginTimeRange extends AbstractCollection<Appointment> {
+    private final long from;
+    private final long to;
+
+    BeginTimeRange(long from, long to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public int size() {
+      return Math.max(0, countBeginningBefore(this.to + 1) - countBeginningBefore(this.from));
+    }
+
+    @Override
+    public Iterator<Appointment> iterator() {
+      return new InOrderIterator(new NodeIterator(root, this.from), this.to);
+    }
+  }
+
+  /**
+   * An immutable node in the tree that caches the height, size and latest end minute
+   * of its subtree.
+   */
+  private static class Node implements Serializable {
+    private final Appointment appointment;
+    private final long sequence;
+    private final Node left;
+    private final Node right;
+    private final int height;
+    private final int size;
+    private final int maxEnd;
+
+    Node(Appointment appointment, long sequence, Node left, Node right) {
+      this.appointment = appointment;
+      this.sequence = sequence;
+      this.left = left;
+      this.right = right;
+      this.height = 1 + Math.max(height(left), height(right));
+      this.size = 1 + size(left) + size(right);
+
+      int max = appointment.getEndMinute();
+      if (left != null) {
+        max = Math.max(max, left.maxEnd);
+      }
+      if (right != null) {
+        max = Math.max(max, right.maxEnd);
+      }
+      this.maxEnd = max;
+    }
+
+    private static int size(Node node) {
+      return node == null ? 0 : node.size;
+    }
+  }
+}
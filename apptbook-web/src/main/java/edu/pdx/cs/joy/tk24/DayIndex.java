@@ -0,0 +1,105 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of appointments by calendar day.  Each day maps to a sorted bucket of the
+ * appointments that touch it, so an appointment that spans several days is in several
+ * buckets.  An appointment touches a day if any part of it falls on that day; one that
+ * ends exactly at midnight does not touch the day that begins then.
+ */
+class DayIndex {
+
+  private static final int MINUTES_PER_DAY = 24 * 60;
+
+  private final Map<Long, List<Appointment>> buckets = new HashMap<>();
+
+  /**
+   * Adds an appointment to the bucket of every day it touches, keeping each bucket sorted.
+   *
+   * @param appointment The appointment to add
+   */
+  void add(Appointment appointment) {
+    for (long day = firstDay(appointment); day <= lastDay(appointment); day++) {
+      List<Appointment> bucket = this.buckets.computeIfAbsent(day, d -> new ArrayList<>());
+      int index = bucket.size();
+      if (index > 0 && bucket.get(index - 1).compareTo(appointment) > 0) {
+        index = Collections.binarySearch(bucket, appointment);
+        if (index < 0) {
+          index = -index - 1;
+        }
+      }
+      bucket.add(index, appointment);
+    }
+  }
+
+  /**
+   * Removes an appointment from the bucket of every day it touches.  If the bucket holds
+   * several equal appointments, only one of them is removed.
+   *
+   * @param appointment The appointment to remove
+   */
+  void remove(Appointment appointment) {
+    for (long day = firstDay(appointment); day <= lastDay(appointment); day++) {
+      List<Appointment> bucket = this.buckets.get(day);
+      if (bucket == null) {
+        continue;
+      }
+      int index = Collections.binarySearch(bucket, appointment);
+      if (index >= 0) {
+        bucket.remove(index);
+        if (bucket.isEmpty()) {
+          this.buckets.remove(day);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the appointments that touch a day.
+   *
+   * @param day The day, as the number of days since the epoch
+   * @return An unmodifiable copy of the sorted bucket for the day, which is not changed
+   *         by appointments added later and is empty if no appointments touch the day
+   */
+  List<Appointment> on(long day) {
+    List<Appointment> bucket = this.buckets.get(day);
+    return bucket == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(bucket));
+  }
+
+  /**
+   * Returns the first day that an appointment touches.
+   *
+   * @param appointment The appointment
+   * @return The day on which it begins, as the number of days since the epoch
+   */
+  static long firstDay(Appointment appointment) {
+    return Math.floorDiv(appointment.getBeginMinute(), MINUTES_PER_DAY);
+  }
+
+  /**
+   * Returns the last day that an appointment touches.
+   *
+   * @param appointment The appointment
+   * @return The day of its last minute, as the number of days since the epoch
+   */
+  static long lastDay(Appointment appointment) {
+    int begin = appointment.getBeginMinute();
+    int end = appointment.getEndMinute();
+    return Math.floorDiv(end > begin ? end - 1L : begin, MINUTES_PER_DAY);
+  }
+
+  /**
+   * Returns the first minute of a day.
+   *
+   * @param day The day, as the number of days since the epoch
+   * @return The minute at which the day begins, in minutes since the epoch
+   */
+  static long firstMinute(long day) {
+    return day * MINUTES_PER_DAY;
+  }
+}
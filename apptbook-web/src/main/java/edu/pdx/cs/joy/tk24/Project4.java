@@ -5,7 +5,6 @@ import edu.pdx.cs.joy.ParserException;
 
 import java.io.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
@@ -186,9 +185,8 @@ public class Project4 {
 
                 if (printFlag) {
                     try {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
-                        LocalDateTime beginDateTime = LocalDateTime.parse(beginTime, formatter);
-                        LocalDateTime endDateTime = LocalDateTime.parse(endTime, formatter);
+                        LocalDateTime beginDateTime = DateTimeCodec.parse(beginTime);
+                        LocalDateTime endDateTime = DateTimeCodec.parse(endTime);
 
                         Appointment appt = new Appointment(description, beginDateTime, endDateTime);
 
@@ -2,7 +2,7 @@ package edu.pdx.cs.joy.tk24;
 
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.util.Map;
+import java.util.Collection;
 
 
 
@@ -26,15 +26,28 @@ public class TextDumper {
      * @param book the appointment book to dump
      */
     public void dump(AppointmentBook book) {
+        dump(book.getOwnerName(), book.getAppointments());
+    }
+
+    /**
+     * Dumps the given appointments in text format, as if they were the
+     * contents of an appointment book belonging to the given owner.
+     *
+     * @param owner the name of the owner to write on the first line
+     * @param appointments the appointments to dump, in the order they are to be written
+     */
+    public void dump(String owner, Collection<Appointment> appointments) {
         try (PrintWriter pw = new PrintWriter(this.writer)) {
-            pw.println(book.getOwnerName());
-
-            for (Appointment appointment : book.getAppointments()) {
-                pw.printf("%s | %s | %s%n",
-                        appointment.getDescription(),
-                        appointment.getBeginTimeString(),
-                        appointment.getEndTimeString()
-                );
+            pw.println(owner);
+            char[] time = new char[DateTimeCodec.MAX_LENGTH];
+
+            for (Appointment appointment : appointments) {
+                pw.write(appointment.getDescription());
+                pw.write(" | ");
+                pw.write(time, 0, DateTimeCodec.format(appointment.getBeginMinute(), time, 0));
+                pw.write(" | ");
+                pw.write(time, 0, DateTimeCodec.format(appointment.getEndMinute(), time, 0));
+                pw.println();
             }
 
             pw.flush();
@@ -12,6 +12,8 @@ import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -53,6 +55,37 @@ public class AppointmentBookRestClientTest {
     assertThat(result, equalTo(expected));
   }
 
+  /**
+   * Tests that addAppointment returns the id that the server sends back for the new appointment.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Test
+  void addAppointmentReturnsIdFromResponse() throws IOException {
+    HttpRequestHelper http = mock(HttpRequestHelper.class);
+    when(http.post(anyMap())).thenReturn(new HttpRequestHelper.Response("42\n"));
+
+    AppointmentBookRestClient client = new AppointmentBookRestClient(http);
+
+    assertThat(client.addAppointment("Owner", "Lunch", "08/06/2025 12:00 PM", "08/06/2025 1:00 PM"), equalTo(42L));
+  }
+
+  /**
+   * Tests that addAppointment reports a response that is not an id with an IOException.
+   *
+   * @throws IOException if the mocked request cannot be set up
+   */
+  @Test
+  void addAppointmentRejectsResponseWithoutId() throws IOException {
+    HttpRequestHelper http = mock(HttpRequestHelper.class);
+    when(http.post(anyMap())).thenReturn(new HttpRequestHelper.Response("Added appointment"));
+
+    AppointmentBookRestClient client = new AppointmentBookRestClient(http);
+
+    assertThrows(IOException.class,
+      () -> client.addAppointment("Owner", "Lunch", "08/06/2025 12:00 PM", "08/06/2025 1:00 PM"));
+  }
+
   /**
    * Helper method that converts an appointment book to a text response format
    * using the same TextDumper format that the real server uses.
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 
 /**
@@ -78,9 +79,7 @@ public class AppointmentBookServletTest {
 
     servlet.doPost(request, response);
 
-    assertThat(stringWriter.toString(), containsString("Added appointment"));
-    assertThat(stringWriter.toString(), containsString(description));
-    assertThat(stringWriter.toString(), containsString(owner));
+    long id = Long.parseLong(stringWriter.toString().trim());
 
     ArgumentCaptor<Integer> statusCode = ArgumentCaptor.forClass(Integer.class);
     verify(response).setStatus(statusCode.capture());
@@ -90,6 +89,7 @@ public class AppointmentBookServletTest {
     AppointmentBook book = servlet.getAppointmentBook(owner);
     assertThat(book.getOwnerName(), equalTo(owner));
     assertThat(new ArrayList<>(book.getAppointments()).get(0).getDescription(), equalTo(description));
+    assertThat(book.get(id).getDescription(), equalTo(description));
   }
 
   /**
@@ -189,4 +189,214 @@ public class AppointmentBookServletTest {
     verify(response).sendError(eq(HttpServletResponse.SC_PRECONDITION_FAILED),
             contains("Missing required parameter: owner"));
   }
+
+  /**
+   * Tests that posting an appointment whose times cannot be stored is rejected as a bad
+   * request instead of failing with a server error.
+   *
+   * @throws ServletException if servlet processing fails
+   * @throws IOException if an I/O error occurs
+   */
+  @Test
+  void postAppointmentOutOfSupportedRange() throws ServletException, IOException {
+    AppointmentBookServlet servlet = new AppointmentBookServlet();
+
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn("Tanya");
+    when(request.getParameter(AppointmentBookServlet.DESCRIPTION_PARAMETER)).thenReturn("Dentist");
+    when(request.getParameter(AppointmentBookServlet.BEGIN_PARAMETER)).thenReturn("01/01/9999 9:00 AM");
+    when(request.getParameter(AppointmentBookServlet.END_PARAMETER)).thenReturn("01/01/9999 10:00 AM");
+
+    HttpServletResponse response = mock(HttpServletResponse.class);
+
+    servlet.doPost(request, response);
+
+    verify(response).sendError(eq(HttpServletResponse.SC_BAD_REQUEST),
+            contains("out of the supported range"));
+  }
+
+  /**
+   * Tests that searching with begin and end parameters returns only the
+   * appointments that begin within the range.
+   *
+   * @throws ServletException if servlet processing fails
+   * @throws IOException if an I/O error occurs
+   */
+  @Test
+  void searchReturnsOnlyAppointmentsBeginningInRange() throws ServletException, IOException {
+    AppointmentBookServlet servlet = new AppointmentBookServlet();
+    String owner = "TEST OWNER";
+
+    String[][] appointments = {
+            {"Breakfast", "01/01/2025 8:00 AM", "01/01/2025 9:00 AM"},
+            {"Lunch", "01/01/2025 12:00 PM", "01/01/2025 1:00 PM"},
+            {"Dinner", "01/01/2025 6:00 PM", "01/01/2025 7:00 PM"}
+    };
+    for (String[] appointment : appointments) {
+      HttpServletRequest postRequest = mock(HttpServletRequest.class);
+      when(postRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+      when(postRequest.getParameter(AppointmentBookServlet.DESCRIPTION_PARAMETER)).thenReturn(appointment[0]);
+      when(postRequest.getParameter(AppointmentBookServlet.BEGIN_PARAMETER)).thenReturn(appointment[1]);
+      when(postRequest.getParameter(AppointmentBookServlet.END_PARAMETER)).thenReturn(appointment[2]);
+
+      HttpServletResponse postResponse = mock(HttpServletResponse.class);
+      when(postResponse.getWriter()).thenReturn(new PrintWriter(new StringWriter(), true));
+      servlet.doPost(postRequest, postResponse);
+    }
+
+    HttpServletRequest getRequest = mock(HttpServletRequest.class);
+    when(getRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+    when(getRequest.getParameter(AppointmentBookServlet.BEGIN_PARAMETER)).thenReturn("01/01/2025 8:00 AM");
+    when(getRequest.getParameter(AppointmentBookServlet.END_PARAMETER)).thenReturn("01/01/2025 12:00 PM");
+
+    HttpServletResponse getResponse = mock(HttpServletResponse.class);
+    StringWriter getWriter = new StringWriter();
+    when(getResponse.getWriter()).thenReturn(new PrintWriter(getWriter, true));
+
+    servlet.doGet(getRequest, getResponse);
+
+    verify(getResponse).setStatus(HttpServletResponse.SC_OK);
+    String output = getWriter.toString();
+    assertThat(output, containsString("Breakfast"));
+    assertThat(output, containsString("Lunch"));
+    assertThat(output, not(containsString("Dinner")));
+  }
+
+  /**
+   * Tests that searching by day returns the appointments on that day, including one
+   * that began the night before, and no others.
+   */
+  @Test
+  void searchByDayReturnsAppointmentsOnThatDay() throws ServletException, IOException {
+    AppointmentBookServlet servlet = new AppointmentBookServlet();
+    String owner = "TEST OWNER";
+
+    String[][] appointments = {
+            {"Night shift", "12/31/2024 10:00 PM", "01/01/2025 6:00 AM"},
+            {"Lunch", "01/01/2025 12:00 PM", "01/01/2025 1:00 PM"},
+            {"Breakfast", "01/02/2025 8:00 AM", "01/02/2025 9:00 AM"}
+    };
+    for (String[] appointment : appointments) {
+      HttpServletRequest postRequest = mock(HttpServletRequest.class);
+      when(postRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+      when(postRequest.getParameter(AppointmentBookServlet.DESCRIPTION_PARAMETER)).thenReturn(appointment[0]);
+      when(postRequest.getParameter(AppointmentBookServlet.BEGIN_PARAMETER)).thenReturn(appointment[1]);
+      when(postRequest.getParameter(AppointmentBookServlet.END_PARAMETER)).thenReturn(appointment[2]);
+
+      HttpServletResponse postResponse = mock(HttpServletResponse.class);
+      when(postResponse.getWriter()).thenReturn(new PrintWriter(new StringWriter(), true));
+      servlet.doPost(postRequest, postResponse);
+    }
+
+    HttpServletRequest getRequest = mock(HttpServletRequest.class);
+    when(getRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+    when(getRequest.getParameter(AppointmentBookServlet.DAY_PARAMETER)).thenReturn("01/01/2025");
+
+    HttpServletResponse getResponse = mock(HttpServletResponse.class);
+    StringWriter getWriter = new StringWriter();
+    when(getResponse.getWriter()).thenReturn(new PrintWriter(getWriter, true));
+
+    servlet.doGet(getRequest, getResponse);
+
+    verify(getResponse).setStatus(HttpServletResponse.SC_OK);
+    String output = getWriter.toString();
+    assertThat(output, containsString("Night shift"));
+    assertThat(output, containsString("Lunch"));
+    assertThat(output, not(containsString("Breakfast")));
+  }
+
+  /**
+   * Tests that a GET request with an owner and a number of appointments returns only
+   * that many appointments, starting at the begin parameter.
+   *
+   * @throws ServletException if servlet processing fails
+   * @throws IOException if an I/O error occurs
+   */
+  @Test
+  void nextReturnsOnlyUpcomingAppointments() throws ServletException, IOException {
+    AppointmentBookServlet servlet = new AppointmentBookServlet();
+    String owner = "TEST OWNER";
+
+    String[][] appointments = {
+            {"Breakfast", "01/01/2025 8:00 AM", "01/01/2025 9:00 AM"},
+            {"Lunch", "01/01/2025 12:00 PM", "01/01/2025 1:00 PM"},
+            {"Dinner", "01/01/2025 6:00 PM", "01/01/2025 7:00 PM"}
+    };
+    for (String[] appointment : appointments) {
+      HttpServletRequest postRequest = mock(HttpServletRequest.class);
+      when(postRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+      when(postRequest.getParameter(AppointmentBookServlet.DESCRIPTION_PARAMETER)).thenReturn(appointment[0]);
+      when(postRequest.getParameter(AppointmentBookServlet.BEGIN_PARAMETER)).thenReturn(appointment[1]);
+      when(postRequest.getParameter(AppointmentBookServlet.END_PARAMETER)).thenReturn(appointment[2]);
+
+      HttpServletResponse postResponse = mock(HttpServletResponse.class);
+      when(postResponse.getWriter()).thenReturn(new PrintWriter(new StringWriter(), true));
+      servlet.doPost(postRequest, postResponse);
+    }
+
+    HttpServletRequest getRequest = mock(HttpServletRequest.class);
+    when(getRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+    when(getRequest.getParameter(AppointmentBookServlet.BEGIN_PARAMETER)).thenReturn("01/01/2025 10:00 AM");
+    when(getRequest.getParameter(AppointmentBookServlet.NEXT_PARAMETER)).thenReturn("1");
+
+    HttpServletResponse getResponse = mock(HttpServletResponse.class);
+    StringWriter getWriter = new StringWriter();
+    when(getResponse.getWriter()).thenReturn(new PrintWriter(getWriter, true));
+
+    servlet.doGet(getRequest, getResponse);
+
+    verify(getResponse).setStatus(HttpServletResponse.SC_OK);
+    String output = getWriter.toString();
+    assertThat(output, containsString("Lunch"));
+    assertThat(output, not(containsString("Breakfast")));
+    assertThat(output, not(containsString("Dinner")));
+  }
+
+  /**
+   * Tests that a DELETE request with an owner and the id returned by POST removes only
+   * that appointment, and that deleting it again is reported as not found.
+   *
+   * @throws ServletException if servlet processing fails
+   * @throws IOException if an I/O error occurs
+   */
+  @Test
+  void deleteByIdRemovesOneAppointment() throws ServletException, IOException {
+    AppointmentBookServlet servlet = new AppointmentBookServlet();
+    String owner = "TEST OWNER";
+
+    String[] ids = new String[2];
+    String[] descriptions = {"Lunch", "Dinner"};
+    for (int i = 0; i < descriptions.length; i++) {
+      HttpServletRequest postRequest = mock(HttpServletRequest.class);
+      when(postRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+      when(postRequest.getParameter(AppointmentBookServlet.DESCRIPTION_PARAMETER)).thenReturn(descriptions[i]);
+      when(postRequest.getParameter(AppointmentBookServlet.BEGIN_PARAMETER)).thenReturn("01/01/2025 1:00 PM");
+      when(postRequest.getParameter(AppointmentBookServlet.END_PARAMETER)).thenReturn("01/01/2025 2:00 PM");
+
+      HttpServletResponse postResponse = mock(HttpServletResponse.class);
+      StringWriter postWriter = new StringWriter();
+      when(postResponse.getWriter()).thenReturn(new PrintWriter(postWriter, true));
+      servlet.doPost(postRequest, postResponse);
+
+      String message = postWriter.toString().trim();
+      ids[i] = message.substring(message.lastIndexOf(' ') + 1);
+    }
+
+    HttpServletRequest deleteRequest = mock(HttpServletRequest.class);
+    when(deleteRequest.getParameter(AppointmentBookServlet.OWNER_PARAMETER)).thenReturn(owner);
+    when(deleteRequest.getParameter(AppointmentBookServlet.ID_PARAMETER)).thenReturn(ids[0]);
+
+    HttpServletResponse deleteResponse = mock(HttpServletResponse.class);
+    when(deleteResponse.getWriter()).thenReturn(new PrintWriter(new StringWriter(), true));
+    servlet.doDelete(deleteRequest, deleteResponse);
+
+    verify(deleteResponse).setStatus(HttpServletResponse.SC_OK);
+    AppointmentBook book = servlet.getAppointmentBook(owner);
+    assertThat(book.getAppointments().size(), equalTo(1));
+    assertThat(book.get(Long.parseLong(ids[1])).getDescription(), equalTo("Dinner"));
+
+    HttpServletResponse againResponse = mock(HttpServletResponse.class);
+    servlet.doDelete(deleteRequest, againResponse);
+    verify(againResponse).sendError(eq(HttpServletResponse.SC_NOT_FOUND), anyString());
+  }
 }
@@ -64,6 +64,23 @@ class Project1IT extends InvokeMainTestCase {
     assertThat(result.getTextWrittenToStandardOut(), containsString("7/18/2025 3:00 PM"));
   }
 
+  /**
+   * Tests that an appointment whose times cannot be stored is reported with an error
+   * message instead of an exception.
+   */
+  @Test
+  void testTimeOutOfSupportedRangePrintsError() {
+    MainMethodResult result = invokeMain(
+            "-print",
+            "Tanya",
+            "Dentist",
+            "01/01/9999", "9:00", "AM",
+            "01/01/9999", "10:00", "AM"
+    );
+    assertThat(result.getTextWrittenToStandardError(),
+            containsString("Time is out of the supported range: 01/01/9999 9:00 AM"));
+  }
+
   /**
    * Tests that an invalid begin time format triggers an appropriate error message.
    */
@@ -0,0 +1,139 @@
+package edu.pdx.cs.joy.tk24;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the heap taken by an appointment stored as epoch minutes with one stored
+ * with two {@link java.time.LocalDateTime} objects, as {@link Appointment} used to be.
+ *
+ * The per-appointment benchmarks each build one appointment from its text, as a parser would, and everything
+ * it allocates is kept by the appointment.  So the {@code gc.alloc.rate.norm} reported by
+ * the GC profiler, which the benchmark profile enables, is the size of one appointment.
+ *
+ * The whole-book benchmarks build a book of a million appointments in each layout, and
+ * report the heap that the book retains per appointment, measured by walking it with
+ * JOL, as the {@code bytesPerAppointment} secondary result.  The old layout is an
+ * {@link ArrayList}, as the book used to be.
+ *
+ * Run with {@code mvn -P benchmark verify -Djmh.includes=AppointmentFootprintBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentFootprintBenchmark {
+
+  private static final int BOOK_SIZE = 1_000_000;
+  private static final String[] DESCRIPTIONS = new String[50];
+
+  static {
+    for (int i = 0; i < DESCRIPTIONS.length; i++) {
+      DESCRIPTIONS[i] = "Appointment " + i;
+    }
+  }
+
+  private final String description = "Standup";
+  private final String begin = "08/01/2025 9:00 AM";
+  private final String end = "08/01/2025 9:15 AM";
+
+  @Benchmark
+  public Appointment epochMinutes() {
+    return new Appointment(this.description,
+      Appointment.toEpochMinute(DateTimeCodec.parseEpochMinute(this.begin)),
+      Appointment.toEpochMinute(DateTimeCodec.parseEpochMinute(this.end)));
+  }
+
+  @Benchmark
+  public AppointmentSortBenchmark.LocalDateTimeAppointment localDateTimes() {
+    return new AppointmentSortBenchmark.LocalDateTimeAppointment(this.description,
+      DateTimeCodec.parse(this.begin), DateTimeCodec.parse(this.end));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 3)
+  public AppointmentBook wholeBookWithEpochMinutes(Footprint footprint) {
+    Random random = new Random(410);
+    List<Appointment> appointments = new ArrayList<>(BOOK_SIZE);
+    for (int i = 0; i < BOOK_SIZE; i++) {
+      int begin = beginMinute(random);
+      appointments.add(new Appointment(description(random), begin, begin + random.nextInt(8) * 15));
+    }
+    AppointmentBook book = new AppointmentBook("Tanya");
+    book.addAll(appointments);
+
+    footprint.bytesPerAppointment = GraphLayout.parseInstance(book).totalSize() / BOOK_SIZE;
+    return book;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 3)
+  public List<AppointmentSortBenchmark.LocalDateTimeAppointment> wholeBookWithLocalDateTimes(Footprint footprint) {
+    Random random = new Random(410);
+    List<AppointmentSortBenchmark.LocalDateTimeAppointment> book = new ArrayList<>();
+    for (int i = 0; i < BOOK_SIZE; i++) {
+      int begin = beginMinute(random);
+      int end = begin + random.nextInt(8) * 15;
+      book.add(new AppointmentSortBenchmark.LocalDateTimeAppointment(description(random),
+        Appointment.fromEpochMinute(begin), Appointment.fromEpochMinute(end)));
+    }
+    book.sort(null);
+
+    footprint.bytesPerAppointment = GraphLayout.parseInstance(book).totalSize() / BOOK_SIZE;
+    return book;
+  }
+
+  /**
+   * Returns a random begin time on the quarter hour in the year from August 2025.
+   */
+  private static int beginMinute(Random random) {
+    return Appointment.toEpochMinute(LocalDateTime.of(2025, 8, 1, 0, 0)) + random.nextInt(60 * 24 * 365) / 15 * 15;
+  }
+
+  /**
+   * Returns one of a few dozen descriptions.  The descriptions are shared between
+   * appointments, as they are once the description pool has deduplicated them.
+   */
+  private static String description(Random random) {
+    return DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)];
+  }
+
+  /**
+   * The heap retained per appointment by the book that the benchmark built.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long bytesPerAppointment;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+      this.bytesPerAppointment = 0;
+    }
+  }
+}
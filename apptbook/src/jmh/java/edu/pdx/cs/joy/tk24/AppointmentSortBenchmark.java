@@ -0,0 +1,99 @@
+package edu.pdx.cs.joy.tk24;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly arrays of appointments can be sorted, comparing appointments that
+ * compare their packed sort keys with appointments that compare {@link LocalDateTime}s
+ * field by field, as {@link Appointment} used to.
+ *
+ * Run with {@code mvn -P benchmark verify -Djmh.includes=AppointmentSortBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentSortBenchmark {
+
+  @Param({"10000", "1000000"})
+  private int size;
+
+  private Appointment[] appointments;
+  private LocalDateTimeAppointment[] localDateTimeAppointments;
+
+  /**
+   * Creates the same random appointments in both layouts.  Many appointments share a
+   * begin time, so that the end times and descriptions are compared too.
+   */
+  @Setup
+  public void createAppointments() {
+    Random random = new Random(410);
+    LocalDateTime midnight = LocalDateTime.of(2025, 8, 1, 0, 0);
+    this.appointments = new Appointment[this.size];
+    this.localDateTimeAppointments = new LocalDateTimeAppointment[this.size];
+    for (int i = 0; i < this.size; i++) {
+      LocalDateTime begin = midnight.plusMinutes(random.nextInt(60 * 24 * 365) / 15 * 15);
+      LocalDateTime end = begin.plusMinutes(random.nextInt(8) * 15);
+      String description = "Appointment " + random.nextInt(50);
+      this.appointments[i] = new Appointment(description, begin, end);
+      this.localDateTimeAppointments[i] = new LocalDateTimeAppointment(description, begin, end);
+    }
+  }
+
+  @Benchmark
+  public Appointment[] sortBySortKey() {
+    Appointment[] copy = this.appointments.clone();
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  @Benchmark
+  public LocalDateTimeAppointment[] sortByLocalDateTime() {
+    LocalDateTimeAppointment[] copy = this.localDateTimeAppointments.clone();
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  /**
+   * An appointment that keeps its times as {@link LocalDateTime}s and compares them field by field.
+   */
+  static class LocalDateTimeAppointment implements Comparable<LocalDateTimeAppointment> {
+    private final String description;
+    private final LocalDateTime beginTime;
+    private final LocalDateTime endTime;
+
+    LocalDateTimeAppointment(String description, LocalDateTime beginTime, LocalDateTime endTime) {
+      this.description = description;
+      this.beginTime = beginTime;
+      this.endTime = endTime;
+    }
+
+    @Override
+    public int compareTo(LocalDateTimeAppointment other) {
+      int beginCompare = this.beginTime.compareTo(other.beginTime);
+      if (beginCompare != 0) return beginCompare;
+
+      int endCompare = this.endTime.compareTo(other.endTime);
+      if (endCompare != 0) return endCompare;
+
+      return this.description.compareTo(other.description);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package edu.pdx.cs.joy.tk24;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the throughput of adding appointments to one shared book scales with the
+ * number of threads, for a {@link ConcurrentAppointmentBook} and for an
+ * {@link AppointmentBook} that is shared by locking it.
+ *
+ * Run with {@code mvn -P benchmark verify -Djmh.includes=ConcurrentAppointmentBookBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentAppointmentBookBenchmark {
+
+  private static final int MIDNIGHT = Appointment.toEpochMinute(LocalDateTime.of(2025, 8, 1, 0, 0));
+
+  private ConcurrentAppointmentBook concurrentBook;
+  private AppointmentBook lockedBook;
+
+  /**
+   * Starts each iteration with empty books, so that they do not grow without bound.
+   */
+  @Setup(Level.Iteration)
+  public void createBooks() {
+    this.concurrentBook = new ConcurrentAppointmentBook("Tanya");
+    this.lockedBook = new AppointmentBook("Tanya");
+  }
+
+  private static Appointment randomAppointment() {
+    int begin = MIDNIGHT + ThreadLocalRandom.current().nextInt(60 * 24 * 365);
+    return new Appointment("Standup", begin, begin + 15);
+  }
+
+  private void addToLockedBook() {
+    Appointment appointment = randomAppointment();
+    synchronized (this.lockedBook) {
+      this.lockedBook.addAppointment(appointment);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void concurrent01() {
+    this.concurrentBook.addAppointment(randomAppointment());
+  }
+
+  @Benchmark
+  @Threads(2)
+  public void concurrent02() {
+    this.concurrentBook.addAppointment(randomAppointment());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void concurrent04() {
+    this.concurrentBook.addAppointment(randomAppointment());
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void concurrent08() {
+    this.concurrentBook.addAppointment(randomAppointment());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void concurrent16() {
+    this.concurrentBook.addAppointment(randomAppointment());
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void concurrent32() {
+    this.concurrentBook.addAppointment(randomAppointment());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void locked01() {
+    addToLockedBook();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void locked08() {
+    addToLockedBook();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void locked32() {
+    addToLockedBook();
+  }
+}
@@ -0,0 +1,97 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how quickly appointment book text is parsed, comparing the tokenizer in
+ * {@link TextParser} with splitting each line with a regular expression and trimming
+ * the fields, as {@link TextParser} used to.
+ *
+ * Each operation parses just under one mebibyte of text, so the scores are close to MiB
+ * per second.
+ *
+ * Run with {@code mvn -P benchmark verify -Djmh.includes=TextParserBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextParserBenchmark {
+
+  private static final int MEBIBYTE = 1 << 20;
+
+  private String text;
+
+  /**
+   * Writes random appointments with a few dozen different descriptions until the text
+   * fills one mebibyte, leaving out the line that would not fit.
+   */
+  @Setup
+  public void createText() {
+    Random random = new Random(410);
+    LocalDateTime midnight = LocalDateTime.of(2025, 8, 1, 0, 0);
+    StringWriter writer = new StringWriter();
+    writer.write("Benchmark\n");
+    while (writer.getBuffer().length() < MEBIBYTE) {
+      LocalDateTime begin = midnight.plusMinutes(random.nextInt(60 * 24 * 365) / 15 * 15);
+      LocalDateTime end = begin.plusMinutes(random.nextInt(8) * 15);
+      Appointment appointment = new Appointment("Appointment " + random.nextInt(50), begin, end);
+      writer.write(appointment.getDescription() + "|" + appointment.getBeginTimeString()
+        + "|" + appointment.getEndTimeString() + "\n");
+    }
+    this.text = writer.toString().substring(0, writer.getBuffer().lastIndexOf("\n", MEBIBYTE) + 1);
+  }
+
+  @Benchmark
+  public void tokenize(Blackhole blackhole) throws ParserException {
+    new TextParser(new StringReader(this.text)).parse(new TextParser.Listener() {
+      @Override
+      public void owner(String owner) {
+        blackhole.consume(owner);
+      }
+
+      @Override
+      public void appointment(Appointment appointment) {
+        blackhole.consume(appointment);
+      }
+    });
+  }
+
+  @Benchmark
+  public void split(Blackhole blackhole) throws IOException {
+    BufferedReader br = new BufferedReader(new StringReader(this.text));
+    blackhole.consume(br.readLine());
+    String line;
+    while ((line = br.readLine()) != null) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      String[] fields = line.split("\\|");
+      String description = DescriptionPool.global().canonicalize(fields[0].trim());
+      int beginMinute = Appointment.toEpochMinute(DateTimeCodec.parseEpochMinute(fields[1].trim()));
+      int endMinute = Appointment.toEpochMinute(DateTimeCodec.parseEpochMinute(fields[2].trim()));
+      blackhole.consume(new Appointment(description, beginMinute, endMinute));
+    }
+  }
+}
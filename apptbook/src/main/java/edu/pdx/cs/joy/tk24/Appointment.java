@@ -1,11 +1,9 @@
 package edu.pdx.cs.joy.tk24;
 
 import edu.pdx.cs.joy.AbstractAppointment;
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
-import java.lang.Comparable;
+import java.time.ZoneOffset;
+import java.util.Objects;
 
 
 /**
@@ -14,14 +12,23 @@ import java.lang.Comparable;
  * This class extends {@link AbstractAppointment} and implements {@link Comparable} to allow
  * sorting based on begin time, then end time, then description.
  *
+ * Appointment times have a granularity of one minute, so they are stored compactly as the
+ * number of minutes since the epoch (1970-01-01T00:00) and {@link LocalDateTime} objects are
+ * only created when they are asked for.  The begin and end minutes are packed into a single
+ * {@code long} sort key, so that most comparisons are a single {@link Long#compare}.
+ *
+ * Two appointments are equal if they have the same begin time, end time and description,
+ * which is consistent with {@link #compareTo}.  The hash code is computed from the sort key
+ * and the description the first time it is asked for, and is then cached.
+ *
  */
 public class Appointment extends AbstractAppointment implements Comparable<Appointment> {
 
-  private final String description;
-  private final LocalDateTime beginTime;
-  private final LocalDateTime endTime;
+  private static final long serialVersionUID = 1L;
 
-  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
+  private final String description;
+  private final long sortKey;
+  private transient int hash;
 
   /**
    * Constructs a new {@code Appointment} instance.
@@ -29,7 +36,8 @@ public class Appointment extends AbstractAppointment implements Comparable<Appoi
    * @param description A short description of the appointment
    * @param beginTime   The start time of the appointment as a {@link LocalDateTime}
    * @param endTime     The end time of the appointment as a {@link LocalDateTime}
-   * @throws IllegalArgumentException if the end time is before the begin time
+   * @throws IllegalArgumentException if the end time is before the begin time, or if either
+   *                                  time is too far from the present to be stored
    */
   public Appointment(String description, LocalDateTime beginTime, LocalDateTime endTime) {
     if(endTime.isBefore(beginTime)){
@@ -37,8 +45,86 @@ public class Appointment extends AbstractAppointment implements Comparable<Appoi
     }
 
     this.description = description;
-    this.beginTime = beginTime;
-    this.endTime = endTime;
+    this.sortKey = sortKey(toEpochMinute(beginTime), toEpochMinute(endTime));
+  }
+
+  /**
+   * Constructs a new {@code Appointment} from times that are already expressed in
+   * minutes since the epoch.
+   *
+   * @param description A short description of the appointment
+   * @param beginMinute The start time of the appointment in minutes since the epoch
+   * @param endMinute   The end time of the appointment in minutes since the epoch
+   * @throws IllegalArgumentException if the end time is before the begin time
+   */
+  Appointment(String description, int beginMinute, int endMinute) {
+    if (endMinute < beginMinute) {
+      throw new IllegalArgumentException("End time cannot be before begin time");
+    }
+
+    this.description = description;
+    this.sortKey = sortKey(beginMinute, endMinute);
+  }
+
+  /**
+   * Constructs a new {@code Appointment} from a sort key that was returned by
+   * {@link #getSortKey()}.
+   *
+   * @param description A short description of the appointment
+   * @param sortKey     The packed begin and end minutes of the appointment
+   */
+  Appointment(String description, long sortKey) {
+    this.description = description;
+    this.sortKey = sortKey;
+  }
+
+  /**
+   * Packs a begin minute and an end minute into a key whose natural order is the order
+   * of the begin minutes and then of the end minutes.  The begin minute is kept in the
+   * high 32 bits.  The end minute is offset to be non-negative and kept in the low 32 bits.
+   *
+   * @param beginMinute The start time in minutes since the epoch
+   * @param endMinute   The end time in minutes since the epoch
+   * @return The packed sort key
+   */
+  static long sortKey(int beginMinute, int endMinute) {
+    return ((long) beginMinute << 32) | ((endMinute - Integer.MIN_VALUE) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Converts a date and time to the number of whole minutes since the epoch.
+   * Seconds and fractions of a second are discarded.
+   *
+   * @param time The date and time to convert
+   * @return The number of minutes since 1970-01-01T00:00
+   * @throws IllegalArgumentException if the time is too far from the epoch to be stored
+   */
+  static int toEpochMinute(LocalDateTime time) {
+    return toEpochMinute(Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60));
+  }
+
+  /**
+   * Checks that a number of minutes since the epoch can be stored in an appointment.
+   *
+   * @param minute The number of minutes since 1970-01-01T00:00
+   * @return The same number of minutes
+   * @throws IllegalArgumentException if the time is too far from the epoch to be stored
+   */
+  static int toEpochMinute(long minute) {
+    if (minute < Integer.MIN_VALUE || minute > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Time is out of the supported range: " + DateTimeCodec.format(fromEpochMinute(minute)));
+    }
+    return (int) minute;
+  }
+
+  /**
+   * Converts a number of minutes since the epoch back to a date and time.
+   *
+   * @param minute The number of minutes since 1970-01-01T00:00
+   * @return The corresponding date and time
+   */
+  static LocalDateTime fromEpochMinute(long minute) {
+    return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
   }
 
   /**
@@ -48,7 +134,7 @@ public class Appointment extends AbstractAppointment implements Comparable<Appoi
    */
   @Override
   public String getBeginTimeString() {
-    return this.beginTime.format(FORMATTER);
+    return DateTimeCodec.format(getBeginMinute());
   }
 
   /**
@@ -58,8 +144,7 @@ public class Appointment extends AbstractAppointment implements Comparable<Appoi
    */
   @Override
   public String getEndTimeString() {
-    return this.endTime.format(FORMATTER);
-
+    return DateTimeCodec.format(getEndMinute());
   }
 
   /**
@@ -69,7 +154,7 @@ public class Appointment extends AbstractAppointment implements Comparable<Appoi
    */
   @Override
   public LocalDateTime getBeginTime() {
-    return beginTime;
+    return fromEpochMinute(getBeginMinute());
   }
 
   /**
@@ -79,7 +164,35 @@ public class Appointment extends AbstractAppointment implements Comparable<Appoi
    */
   @Override
   public LocalDateTime getEndTime() {
-    return endTime;
+    return fromEpochMinute(getEndMinute());
+  }
+
+  /**
+   * Returns the start time of this appointment in minutes since the epoch.
+   *
+   * @return The start time of the appointment in minutes since 1970-01-01T00:00
+   */
+  int getBeginMinute() {
+    return (int) (this.sortKey >> 32);
+  }
+
+  /**
+   * Returns the end time of this appointment in minutes since the epoch.
+   *
+   * @return The end time of the appointment in minutes since 1970-01-01T00:00
+   */
+  int getEndMinute() {
+    return (int) this.sortKey + Integer.MIN_VALUE;
+  }
+
+  /**
+   * Returns the begin and end minutes of this appointment packed into one key.
+   *
+   * @return The sort key of this appointment
+   * @see #sortKey(int, int)
+   */
+  long getSortKey() {
+    return this.sortKey;
   }
 
   /**
@@ -104,12 +217,28 @@ public class Appointment extends AbstractAppointment implements Comparable<Appoi
    */
   @Override
   public int compareTo(Appointment other) {
-    int beginCompare = this.getBeginTime().compareTo(other.getBeginTime());
-    if (beginCompare != 0) return beginCompare;
-
-    int endCompare = this.getEndTime().compareTo(other.getEndTime());
-    if (endCompare != 0) return endCompare;
+    int timeCompare = Long.compare(this.sortKey, other.sortKey);
+    if (timeCompare != 0) return timeCompare;
 
     return this.getDescription().compareTo(other.getDescription());
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof Appointment)) return false;
+    Appointment other = (Appointment) o;
+    return this.sortKey == other.sortKey && Objects.equals(this.description, other.description);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = this.hash;
+    if (hash == 0) {
+      // Like String, a hash that happens to be zero is recomputed each time
+      hash = 31 * Long.hashCode(this.sortKey) + Objects.hashCode(this.description);
+      this.hash = hash;
+    }
+    return hash;
+  }
 }
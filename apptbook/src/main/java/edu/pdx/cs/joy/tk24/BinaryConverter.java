@@ -0,0 +1,73 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Converts appointment books between the text format of {@link TextDumper} and the
+ * binary format of {@link BinaryDumper}.
+ *
+ * Usage: {@code java edu.pdx.cs.joy.tk24.BinaryConverter (-toBinary | -toText) inputFile outputFile}
+ */
+public class BinaryConverter {
+
+  /**
+   * Converts the file named on the command line.
+   *
+   * @param args Command line arguments: -toBinary or -toText, the input file and the output file
+   */
+  public static void main(String[] args) {
+    if (args.length != 3 || (!args[0].equals("-toBinary") && !args[0].equals("-toText"))) {
+      System.err.println("Usage: BinaryConverter (-toBinary | -toText) inputFile outputFile");
+      return;
+    }
+
+    File input = new File(args[1]);
+    File output = new File(args[2]);
+    try {
+      if (args[0].equals("-toBinary")) {
+        textToBinary(input, output);
+      } else {
+        binaryToText(input, output);
+      }
+    } catch (ParserException e) {
+      System.err.println("Could not parse file: " + e.getMessage());
+    } catch (IOException e) {
+      System.err.println("Could not convert file: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Writes the appointment book in a text file to a binary file.
+   *
+   * @param text   The text file to read
+   * @param binary The binary file to write
+   * @throws ParserException If the text file is malformed or cannot be read
+   * @throws IOException     If the binary file cannot be written
+   */
+  public static void textToBinary(File text, File binary) throws ParserException, IOException {
+    AppointmentBook book = Project3.parseTextFile(text);
+    new BinaryDumper(new FileOutputStream(binary)).dump(book);
+  }
+
+  /**
+   * Writes the appointment book in a binary file to a text file.
+   *
+   * @param binary The binary file to read
+   * @param text   The text file to write
+   * @throws ParserException If the binary file is malformed or cannot be read
+   * @throws IOException     If the text file cannot be written
+   */
+  public static void binaryToText(File binary, File text) throws ParserException, IOException {
+    AppointmentBook book = new BinaryParser(new FileInputStream(binary)).parse();
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(text))) {
+      new TextDumper(writer).dump(book);
+    }
+  }
+}
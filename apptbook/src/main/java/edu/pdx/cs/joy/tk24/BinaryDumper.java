@@ -0,0 +1,142 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.AbstractAppointmentBook;
+import edu.pdx.cs.joy.AppointmentBookDumper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A class that writes the contents of an AppointmentBook in a compact binary format,
+ * which is read by {@link BinaryParser}.
+ *
+ * The format is made of unsigned variable-length integers ("varints"), which hold seven
+ * bits in each byte with the high bit set on every byte but the last, and of strings,
+ * which are a varint length followed by that many bytes of UTF-8.  A file holds:
+ * <ol>
+ *   <li>the four bytes {@code APBK} and a varint version, which is {@value #VERSION};</li>
+ *   <li>the owner's name;</li>
+ *   <li>the number of distinct descriptions, followed by each description;</li>
+ *   <li>the number of one-time appointments, followed by each appointment in sorted order
+ *       as the index of its description, the difference between its begin minute and that
+ *       of the appointment before it, zigzag-encoded so that it may be negative, and the
+ *       number of minutes from its begin time to its end time;</li>
+ *   <li>the number of recurring appointments, followed by each one as the index of its
+ *       description, its first begin minute, zigzag-encoded, the number of minutes to its
+ *       first end time, and its rule.</li>
+ * </ol>
+ * Because the appointments are sorted, most begin times are a byte or two, and a typical
+ * appointment takes about five bytes.
+ */
+public class BinaryDumper implements AppointmentBookDumper<AbstractAppointmentBook<Appointment>> {
+
+  /**
+   * The bytes at the start of every binary appointment book.
+   */
+  static final int MAGIC = ('A' << 24) | ('P' << 16) | ('B' << 8) | 'K';
+
+  /**
+   * The version of the format that is written.
+   */
+  static final int VERSION = 1;
+
+  private final OutputStream stream;
+
+  /**
+   * Creates a new BinaryDumper that writes to the specified stream.
+   *
+   * @param stream The stream to output the appointment book to
+   */
+  public BinaryDumper(OutputStream stream) {
+    this.stream = stream;
+  }
+
+  /**
+   * Dumps the appointment book's contents to the stream, and closes it.
+   *
+   * @param book The AppointmentBook to write
+   * @throws IOException if the book cannot be written
+   */
+  @Override
+  public void dump(AbstractAppointmentBook<Appointment> book) throws IOException {
+    Collection<Appointment> appointments = book.getAppointments();
+    List<RecurringAppointment> recurring = Collections.emptyList();
+    if (book instanceof AppointmentBook) {
+      appointments = ((AppointmentBook) book).getOneTimeAppointments();
+      recurring = ((AppointmentBook) book).getRecurringAppointments();
+    }
+
+    Map<String, Integer> indexes = new HashMap<>();
+    List<String> descriptions = new ArrayList<>();
+    for (Appointment appointment : appointments) {
+      if (indexes.putIfAbsent(appointment.getDescription(), descriptions.size()) == null) {
+        descriptions.add(appointment.getDescription());
+      }
+    }
+    for (RecurringAppointment appointment : recurring) {
+      if (indexes.putIfAbsent(appointment.getDescription(), descriptions.size()) == null) {
+        descriptions.add(appointment.getDescription());
+      }
+    }
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(this.stream))) {
+      out.writeInt(MAGIC);
+      writeVarint(out, VERSION);
+      writeString(out, book.getOwnerName());
+
+      writeVarint(out, descriptions.size());
+      for (String description : descriptions) {
+        writeString(out, description);
+      }
+
+      writeVarint(out, appointments.size());
+      long previousBegin = 0;
+      for (Appointment appointment : appointments) {
+        writeVarint(out, indexes.get(appointment.getDescription()));
+        writeVarint(out, zigzag(appointment.getBeginMinute() - previousBegin));
+        writeVarint(out, (long) appointment.getEndMinute() - appointment.getBeginMinute());
+        previousBegin = appointment.getBeginMinute();
+      }
+
+      writeVarint(out, recurring.size());
+      for (RecurringAppointment appointment : recurring) {
+        int begin = Appointment.toEpochMinute(appointment.getBeginTime());
+        writeVarint(out, indexes.get(appointment.getDescription()));
+        writeVarint(out, zigzag(begin));
+        writeVarint(out, (long) Appointment.toEpochMinute(appointment.getEndTime()) - begin);
+        writeString(out, appointment.getRule());
+      }
+    }
+  }
+
+  /**
+   * Maps signed values to unsigned ones so that values near zero are small: 0, -1, 1,
+   * -2, 2 become 0, 1, 2, 3, 4.
+   */
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static void writeVarint(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarint(out, bytes.length);
+    out.write(bytes);
+  }
+}
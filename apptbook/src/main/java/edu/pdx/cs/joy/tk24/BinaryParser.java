@@ -0,0 +1,133 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.AppointmentBookParser;
+import edu.pdx.cs.joy.ParserException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses an {@link AppointmentBook} from the binary format written by {@link BinaryDumper}.
+ */
+public class BinaryParser implements AppointmentBookParser<AppointmentBook> {
+
+  private static final int INITIAL_CAPACITY = 1 << 16;
+
+  private final InputStream stream;
+
+  /**
+   * Creates a new parser with the given stream as its input source.
+   *
+   * @param stream The stream to read the binary appointment book from
+   */
+  public BinaryParser(InputStream stream) {
+    this.stream = stream;
+  }
+
+  /**
+   * Parses the contents of the stream, closes it, and returns an {@link AppointmentBook}
+   * with the owner and all of the appointments.
+   *
+   * @return The parsed {@link AppointmentBook}
+   * @throws ParserException If the stream does not hold a binary appointment book of a
+   *                         supported version, is truncated or corrupt, or cannot be read
+   */
+  @Override
+  public AppointmentBook parse() throws ParserException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(this.stream))) {
+      if (in.readInt() != BinaryDumper.MAGIC) {
+        throw new ParserException("Not a binary appointment book");
+      }
+      long version = readVarint(in);
+      if (version != BinaryDumper.VERSION) {
+        throw new ParserException("Unsupported binary appointment book version: " + version);
+      }
+      AppointmentBook book = new AppointmentBook(readString(in));
+
+      int count = readCount(in);
+      List<String> descriptions = new ArrayList<>(Math.min(count, INITIAL_CAPACITY));
+      for (int i = 0; i < count; i++) {
+        descriptions.add(DescriptionPool.global().canonicalize(readString(in)));
+      }
+
+      count = readCount(in);
+      List<Appointment> appointments = new ArrayList<>(Math.min(count, INITIAL_CAPACITY));
+      long begin = 0;
+      for (int i = 0; i < count; i++) {
+        String description = description(descriptions, readVarint(in));
+        begin += unzigzag(readVarint(in));
+        long end = begin + readVarint(in);
+        appointments.add(new Appointment(description, Appointment.toEpochMinute(begin), Appointment.toEpochMinute(end)));
+      }
+      book.addAll(appointments);
+
+      int recurring = readCount(in);
+      for (int i = 0; i < recurring; i++) {
+        String description = description(descriptions, readVarint(in));
+        long first = unzigzag(readVarint(in));
+        long end = first + readVarint(in);
+        String rule = readString(in);
+        book.addRecurringAppointment(RecurringAppointment.parse(description,
+          Appointment.fromEpochMinute(first), Appointment.fromEpochMinute(end), rule));
+      }
+      return book;
+
+    } catch (EOFException e) {
+      throw new ParserException("Binary appointment book is truncated", e);
+    } catch (IllegalArgumentException e) {
+      throw new ParserException("Invalid appointment in binary appointment book", e);
+    } catch (IOException e) {
+      throw new ParserException("While parsing binary appointment book", e);
+    }
+  }
+
+  private static String description(List<String> descriptions, long index) throws ParserException {
+    if (index < 0 || index >= descriptions.size()) {
+      throw new ParserException("Invalid description index in binary appointment book: " + index);
+    }
+    return descriptions.get((int) index);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static long readVarint(DataInputStream in) throws IOException, ParserException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new ParserException("Malformed number in binary appointment book");
+  }
+
+  /**
+   * Reads the number of items or bytes that follow.  Callers grow their collections as
+   * the items are read, so that a corrupt count cannot exhaust the heap.
+   */
+  private static int readCount(DataInputStream in) throws IOException, ParserException {
+    long count = readVarint(in);
+    if (count < 0 || count > Integer.MAX_VALUE - 8) {
+      throw new ParserException("Invalid count in binary appointment book: " + count);
+    }
+    return (int) count;
+  }
+
+  private static String readString(DataInputStream in) throws IOException, ParserException {
+    int length = readCount(in);
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length < length) {
+      throw new EOFException();
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
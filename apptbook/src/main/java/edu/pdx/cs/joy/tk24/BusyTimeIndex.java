@@ -0,0 +1,199 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The busy time of an appointment book, kept as a set of disjoint intervals of minutes.
+ * Adding an appointment merges it with the intervals that it overlaps or touches, so
+ * overlapping appointments are never counted twice.
+ *
+ * The intervals are kept in a treap ordered by begin minute, in which each node also
+ * holds the total length of the intervals in its subtree.  Adding an interval and
+ * finding the busy minutes between two times both take O(log n) expected time, plus
+ * the number of intervals that an addition merges away.
+ *
+ * Because overlapping appointments are merged, the index cannot tell which minutes an
+ * appointment alone was keeping busy.  To remove an appointment, its minutes are freed
+ * with {@link #free} and the other appointments that overlap it are added again.
+ */
+class BusyTimeIndex {
+
+  private Node root;
+
+  /**
+   * Marks the minutes from {@code begin} to {@code end} as busy.
+   *
+   * @param begin The first busy minute, in minutes since the epoch
+   * @param end   The minute at which the busy time ends (exclusive)
+   */
+  void add(long begin, long end) {
+    if (end <= begin) {
+      return;
+    }
+
+    Node[] split = split(this.root, begin);
+    Node before = split[0];
+    Node last = rightmost(before);
+    if (last != null && last.end >= begin) {
+      before = split(before, last.begin)[0];
+      begin = last.begin;
+      end = Math.max(end, last.end);
+    }
+
+    split = split(split[1], end + 1);
+    Node covered = rightmost(split[0]);
+    if (covered != null) {
+      end = Math.max(end, covered.end);
+    }
+
+    this.root = merge(merge(before, new Node(begin, end)), split[1]);
+  }
+
+  /**
+   * Marks the minutes from {@code begin} to {@code end} as free, trimming or splitting
+   * the intervals that overlap them.
+   *
+   * @param begin The first minute to free, in minutes since the epoch
+   * @param end   The minute at which the freed time ends (exclusive)
+   */
+  void free(long begin, long end) {
+    if (end <= begin) {
+      return;
+    }
+
+    Node[] split = split(this.root, begin);
+    Node before = split[0];
+    split = split(split[1], end);
+    Node after = split[1];
+
+    // The intervals that begin in the freed time are dropped, but the last of them,
+    // or an interval that begins before it, may run past its end
+    Node covered = rightmost(split[0]);
+    long tail = covered == null ? end : covered.end;
+    Node last = rightmost(before);
+    if (last != null && last.end > begin) {
+      before = merge(split(before, last.begin)[0], new Node(last.begin, begin));
+      tail = Math.max(tail, last.end);
+    }
+    if (tail > end) {
+      after = merge(new Node(end, tail), after);
+    }
+
+    this.root = merge(before, after);
+  }
+
+  /**
+   * Returns the number of busy minutes from {@code from} to {@code to}.
+   *
+   * @param from The beginning of the span, in minutes since the epoch
+   * @param to   The end of the span (exclusive)
+   * @return The number of minutes in the span covered by at least one appointment
+   */
+  long busyMinutes(long from, long to) {
+    return to <= from ? 0 : busyBefore(to) - busyBefore(from);
+  }
+
+  /**
+   * Returns the number of busy minutes before the given minute.
+   */
+  private long busyBefore(long minute) {
+    long busy = 0;
+    Node last = null;
+    Node node = this.root;
+    while (node != null) {
+      if (node.begin < minute) {
+        busy += total(node.left) + node.length();
+        last = node;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    if (last != null && last.end > minute) {
+      busy -= last.end - minute;
+    }
+    return busy;
+  }
+
+  private static long total(Node node) {
+    return node == null ? 0 : node.total;
+  }
+
+  private static Node rightmost(Node node) {
+    if (node != null) {
+      while (node.right != null) {
+        node = node.right;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Splits a treap into the intervals that begin before {@code begin} and those that do not.
+   */
+  private static Node[] split(Node node, long begin) {
+    if (node == null) {
+      return new Node[2];
+    }
+    if (node.begin < begin) {
+      Node[] split = split(node.right, begin);
+      node.right = split[0];
+      node.update();
+      split[0] = node;
+      return split;
+    } else {
+      Node[] split = split(node.left, begin);
+      node.left = split[1];
+      node.update();
+      split[1] = node;
+      return split;
+    }
+  }
+
+  /**
+   * Joins two treaps, all of whose intervals in {@code left} begin before those in {@code right}.
+   */
+  private static Node merge(Node left, Node right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      left.update();
+      return left;
+    } else {
+      right.left = merge(left, right.left);
+      right.update();
+      return right;
+    }
+  }
+
+  /**
+   * A busy interval, with the total length of the intervals in its subtree.
+   */
+  private static class Node {
+    private final long begin;
+    private final long end;
+    private final int priority = ThreadLocalRandom.current().nextInt();
+    private Node left;
+    private Node right;
+    private long total;
+
+    Node(long begin, long end) {
+      this.begin = begin;
+      this.end = end;
+      update();
+    }
+
+    long length() {
+      return this.end - this.begin;
+    }
+
+    void update() {
+      this.total = total(this.left) + length() + total(this.right);
+    }
+  }
+}
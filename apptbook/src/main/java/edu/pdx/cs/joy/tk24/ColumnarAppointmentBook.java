@@ -0,0 +1,375 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.AbstractAppointmentBook;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * An appointment book for very large, analytics-sized collections of appointments.
+ *
+ * Instead of keeping one {@link Appointment} object per appointment, this book stores
+ * the sort keys (the packed begin and end minutes) and descriptions of its appointments
+ * in parallel arrays.  {@link Appointment} objects are lightweight views that are only created
+ * when an appointment is read.  Sorting, range scans and duration sums work directly
+ * on the primitive arrays without allocating.
+ *
+ * Appointments are appended as they are added.  The next time the book is read, the
+ * appointments added since it was last sorted are sorted and merged into the rest, so
+ * loading a book costs a single sort.
+ */
+public class ColumnarAppointmentBook extends AbstractAppointmentBook<Appointment> {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+
+  private final String owner;
+  private long[] sortKeys;
+  private String[] descriptions;
+  private int size;
+  private int sortedSize;
+  private int modifications;
+  private transient List<Appointment> sortedView;
+
+  /**
+   * Creates a new, empty {@code ColumnarAppointmentBook} for the given owner.
+   *
+   * @param owner The name of the appointment book owner.
+   */
+  public ColumnarAppointmentBook(String owner) {
+    this.owner = owner;
+    this.sortKeys = new long[INITIAL_CAPACITY];
+    this.descriptions = new String[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Returns the name of the owner of this appointment book.
+   *
+   * @return The owner's name.
+   */
+  @Override
+  public String getOwnerName() {
+    return this.owner;
+  }
+
+  /**
+   * Returns all appointments in this book as an unmodifiable, sorted view.  Each
+   * {@link Appointment} is created when it is read from the view, and the view includes
+   * appointments that are added to the book later.  Its iterators are fail-fast: adding
+   * an appointment while iterating makes the iterator throw a
+   * {@link ConcurrentModificationException}, since the new appointments are merged in
+   * among those that have already been visited.
+   *
+   * @return A sorted view of all the appointments in this book.
+   */
+  @Override
+  public Collection<Appointment> getAppointments() {
+    ensureSorted();
+    if (this.sortedView == null) {
+      this.sortedView = new ColumnView(0, -1);
+    }
+    return this.sortedView;
+  }
+
+  /**
+   * Adds a new appointment to this appointment book in amortized constant time.
+   *
+   * @param appt The {@link Appointment} to add.
+   */
+  @Override
+  public void addAppointment(Appointment appt) {
+    if (this.size == this.sortKeys.length) {
+      grow(this.size + 1);
+    }
+    append(appt);
+  }
+
+  /**
+   * Adds many appointments to this appointment book at once.
+   *
+   * @param appts The {@link Appointment}s to add.
+   */
+  public void addAll(Collection<? extends Appointment> appts) {
+    grow(this.size + appts.size());
+    for (Appointment appt : appts) {
+      append(appt);
+    }
+  }
+
+  /**
+   * Returns the number of appointments in this book.
+   *
+   * @return The number of appointments in this book.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the appointments in this book that begin at or after {@code begin} and
+   * at or before {@code end}, as an unmodifiable sorted view of this book.  The range
+   * is found by binary search over the begin minutes.  The view is invalidated when an
+   * appointment is added to the book, after which reading it throws a
+   * {@link ConcurrentModificationException}.
+   *
+   * @param begin The earliest begin time to include
+   * @param end   The latest begin time to include
+   * @return The appointments that begin in the given range
+   */
+  public List<Appointment> beginningBetween(LocalDateTime begin, LocalDateTime end) {
+    ensureSorted();
+    int from = firstBeginningAtOrAfter(AppointmentIntervalTree.ceilingMinute(begin));
+    int to = firstBeginningAtOrAfter(AppointmentIntervalTree.floorMinute(end) + 1);
+    return new ColumnView(from, Math.max(from, to));
+  }
+
+  /**
+   * Returns the total length, in minutes, of all the appointments in this book.
+   * Overlapping appointments are each counted in full.
+   *
+   * @return The sum of the durations of the appointments in this book
+   */
+  public long getTotalDurationMinutes() {
+    long total = 0;
+    for (int i = 0; i < this.size; i++) {
+      total += duration(this.sortKeys[i]);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the total length, in minutes, of the appointments that begin at or after
+   * {@code begin} and at or before {@code end}.  Overlapping appointments are each
+   * counted in full.
+   *
+   * @param begin The earliest begin time to include
+   * @param end   The latest begin time to include
+   * @return The sum of the durations of the appointments that begin in the range
+   */
+  public long getDurationMinutesBeginningBetween(LocalDateTime begin, LocalDateTime end) {
+    ensureSorted();
+    int from = firstBeginningAtOrAfter(AppointmentIntervalTree.ceilingMinute(begin));
+    int to = firstBeginningAtOrAfter(AppointmentIntervalTree.floorMinute(end) + 1);
+    long total = 0;
+    for (int i = from; i < to; i++) {
+      total += duration(this.sortKeys[i]);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the index of the first appointment that begins at or after the given minute.
+   */
+  private int firstBeginningAtOrAfter(long minute) {
+    int low = 0;
+    int high = this.size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if ((this.sortKeys[middle] >> 32) < minute) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the length, in minutes, of the appointment with the given sort key.
+   */
+  private static long duration(long sortKey) {
+    return (long) ((int) sortKey + Integer.MIN_VALUE) - (int) (sortKey >> 32);
+  }
+
+  private void append(Appointment appt) {
+    int i = this.size++;
+    this.sortKeys[i] = appt.getSortKey();
+    this.descriptions[i] = appt.getDescription();
+    this.modifications++;
+    if (this.sortedSize == i && (i == 0 || compare(i - 1, i) <= 0)) {
+      this.sortedSize++;
+    }
+  }
+
+  private void grow(int capacity) {
+    if (capacity > this.sortKeys.length) {
+      int length = Math.max(capacity, this.sortKeys.length + (this.sortKeys.length >> 1));
+      this.sortKeys = Arrays.copyOf(this.sortKeys, length);
+      this.descriptions = Arrays.copyOf(this.descriptions, length);
+    }
+  }
+
+  /**
+   * Compares the appointments at two indexes in the same way as {@link Appointment#compareTo}.
+   */
+  private int compare(int i, int j) {
+    return compare(this.sortKeys[i], this.descriptions[i], this.sortKeys[j], this.descriptions[j]);
+  }
+
+  private static int compare(long key1, String description1, long key2, String description2) {
+    int compare = Long.compare(key1, key2);
+    if (compare != 0) return compare;
+
+    return description1.compareTo(description2);
+  }
+
+  /**
+   * Sorts the appointments that have been added since the columns were last sorted,
+   * in place, and merges them into the sorted appointments before them.  The scratch
+   * arrays are only as long as the newly added appointments.
+   */
+  private void ensureSorted() {
+    int from = this.sortedSize;
+    int count = this.size - from;
+    if (count == 0) {
+      return;
+    }
+
+    long[] scratchKeys = new long[count];
+    String[] scratchDescriptions = new String[count];
+    mergeSort(from, this.size, scratchKeys, scratchDescriptions, from);
+    if (from > 0 && compare(from - 1, from) > 0) {
+      mergeIntoSorted(from, scratchKeys, scratchDescriptions);
+    }
+    this.sortedSize = this.size;
+  }
+
+  /**
+   * Sorts the columns between two indexes, using scratch arrays whose first element
+   * stands for the column index {@code base}.
+   */
+  private void mergeSort(int from, int to, long[] scratchKeys, String[] scratchDescriptions, int base) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      insertionSort(from, to);
+      return;
+    }
+
+    int middle = (from + to) >>> 1;
+    mergeSort(from, middle, scratchKeys, scratchDescriptions, base);
+    mergeSort(middle, to, scratchKeys, scratchDescriptions, base);
+    if (compare(middle - 1, middle) <= 0) {
+      return;
+    }
+
+    // Move the left half aside and merge it with the right half, which stays in place
+    int length = middle - from;
+    System.arraycopy(this.sortKeys, from, scratchKeys, from - base, length);
+    System.arraycopy(this.descriptions, from, scratchDescriptions, from - base, length);
+    int i = from - base;
+    int end = middle - base;
+    int j = middle;
+    int k = from;
+    while (i < end) {
+      if (j < to && compare(this.sortKeys[j], this.descriptions[j], scratchKeys[i], scratchDescriptions[i]) < 0) {
+        this.sortKeys[k] = this.sortKeys[j];
+        this.descriptions[k++] = this.descriptions[j++];
+      } else {
+        this.sortKeys[k] = scratchKeys[i];
+        this.descriptions[k++] = scratchDescriptions[i++];
+      }
+    }
+  }
+
+  private void insertionSort(int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      long key = this.sortKeys[i];
+      String description = this.descriptions[i];
+      int j = i - 1;
+      while (j >= from && compare(this.sortKeys[j], this.descriptions[j], key, description) > 0) {
+        this.sortKeys[j + 1] = this.sortKeys[j];
+        this.descriptions[j + 1] = this.descriptions[j];
+        j--;
+      }
+      this.sortKeys[j + 1] = key;
+      this.descriptions[j + 1] = description;
+    }
+  }
+
+  /**
+   * Merges the sorted appointments from {@code from} to the end of the book into the
+   * sorted appointments before them.  The later appointments are moved aside and the
+   * two runs are merged from the back, so the earlier ones before the first later
+   * appointment never move.
+   */
+  private void mergeIntoSorted(int from, long[] scratchKeys, String[] scratchDescriptions) {
+    int count = this.size - from;
+    System.arraycopy(this.sortKeys, from, scratchKeys, 0, count);
+    System.arraycopy(this.descriptions, from, scratchDescriptions, 0, count);
+    int i = from - 1;
+    int j = count - 1;
+    int k = this.size - 1;
+    while (j >= 0) {
+      if (i >= 0 && compare(this.sortKeys[i], this.descriptions[i], scratchKeys[j], scratchDescriptions[j]) > 0) {
+        this.sortKeys[k] = this.sortKeys[i];
+        this.descriptions[k--] = this.descriptions[i--];
+      } else {
+        this.sortKeys[k] = scratchKeys[j];
+        this.descriptions[k--] = scratchDescriptions[j--];
+      }
+    }
+  }
+
+  /**
+   * An unmodifiable view of a range of the columns that creates an {@link Appointment}
+   * for each element that is read.  A view whose end is negative extends to the end
+   * of the book and follows it as it grows, but its iterators fail fast once an
+   * appointment is added: the view's {@code modCount} tracks the book's count of
+   * modifications, which {@link AbstractList}'s iterators check.  Any other view is only
+   * valid until an appointment is added, since sorting the new appointments moves the
+   * ones it covers.
+   */
+  private class ColumnView extends AbstractList<Appointment> {
+    private final int from;
+    private final int to;
+    private final int expectedModifications;
+
+    ColumnView(int from, int to) {
+      this.from = from;
+      this.to = to;
+      this.expectedModifications = modifications;
+    }
+
+    @Override
+    public Appointment get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      ensureSorted();
+      int i = this.from + index;
+      return new Appointment(descriptions[i], sortKeys[i]);
+    }
+
+    @Override
+    public Iterator<Appointment> iterator() {
+      followModifications();
+      return super.iterator();
+    }
+
+    @Override
+    public ListIterator<Appointment> listIterator(int index) {
+      followModifications();
+      return super.listIterator(index);
+    }
+
+    @Override
+    public int size() {
+      if (this.to < 0) {
+        followModifications();
+        return ColumnarAppointmentBook.this.size - this.from;
+      }
+      if (modifications != this.expectedModifications) {
+        throw new ConcurrentModificationException("Appointments were added to the book after this view was created");
+      }
+      return this.to - this.from;
+    }
+
+    private void followModifications() {
+      this.modCount = modifications;
+    }
+  }
+}
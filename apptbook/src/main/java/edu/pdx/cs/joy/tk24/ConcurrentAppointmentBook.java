@@ -0,0 +1,211 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.AbstractAppointmentBook;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An appointment book that can be shared between threads without locking.
+ *
+ * Appointments are kept in a {@link ConcurrentSkipListSet}, so any number of threads may
+ * add appointments at the same time, and readers never block writers.  Iteration is
+ * weakly consistent: an iterator returns the appointments in sorted order, never fails
+ * because of concurrent additions, and may or may not see appointments that are added
+ * after it was created.
+ *
+ * Each appointment is paired with a unique sequence number, so that equal appointments
+ * added by different threads are all kept.  When the book is serialized, only its
+ * appointments are written, in sorted order, and the skip list is rebuilt when it is read.
+ */
+public class ConcurrentAppointmentBook extends AbstractAppointmentBook<Appointment> {
+  private static final long serialVersionUID = 1L;
+
+  private final String owner;
+  private transient ConcurrentSkipListSet<Entry> entries;
+  private transient AtomicLong nextSequence;
+  private transient AtomicInteger size;
+  private transient Collection<Appointment> sortedView;
+
+  /**
+   * Creates a new, empty {@code ConcurrentAppointmentBook} for the given owner.
+   *
+   * @param owner The name of the appointment book owner.
+   */
+  public ConcurrentAppointmentBook(String owner) {
+    this.owner = owner;
+    initialize();
+  }
+
+  private void initialize() {
+    this.entries = new ConcurrentSkipListSet<>();
+    this.nextSequence = new AtomicLong();
+    this.size = new AtomicInteger();
+    this.sortedView = new EntryView(this.entries);
+  }
+
+  /**
+   * Returns the name of the owner of this appointment book.
+   *
+   * @return The owner's name.
+   */
+  @Override
+  public String getOwnerName() {
+    return this.owner;
+  }
+
+  /**
+   * Returns all appointments in this book as an unmodifiable, sorted and weakly
+   * consistent view.
+   *
+   * @return A collection of all {@link Appointment} objects in the book.
+   */
+  @Override
+  public Collection<Appointment> getAppointments() {
+    return this.sortedView;
+  }
+
+  /**
+   * Adds a new appointment to this appointment book.  This method may be called by
+   * many threads at once.
+   *
+   * @param appt The {@link Appointment} to add.
+   */
+  @Override
+  public void addAppointment(Appointment appt) {
+    this.entries.add(new Entry(appt, this.nextSequence.getAndIncrement()));
+    this.size.incrementAndGet();
+  }
+
+  /**
+   * Returns the appointments in this book that begin at or after {@code begin} and
+   * at or before {@code end}, as an unmodifiable, sorted and weakly consistent view.
+   *
+   * @param begin The earliest begin time to include
+   * @param end   The latest begin time to include
+   * @return The appointments that begin in the given range
+   */
+  public Collection<Appointment> beginningBetween(LocalDateTime begin, LocalDateTime end) {
+    long from = AppointmentIntervalTree.ceilingMinute(begin);
+    long to = Math.max(from, AppointmentIntervalTree.floorMinute(end) + 1);
+    return new EntryView(this.entries.subSet(Entry.before(from), Entry.before(to)));
+  }
+
+  /**
+   * Writes the appointments in sorted order instead of the entries of the skip list.
+   * Appointments that other threads add while the book is being written may or may not
+   * be included.
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    List<Appointment> appointments = new ArrayList<>(this.sortedView);
+    out.writeInt(appointments.size());
+    for (Appointment appointment : appointments) {
+      out.writeObject(appointment);
+    }
+  }
+
+  /**
+   * Rebuilds the skip list from the appointments written by {@link #writeObject}.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    initialize();
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      addAppointment((Appointment) in.readObject());
+    }
+  }
+
+  /**
+   * An appointment together with the sequence number that makes it unique.
+   */
+  private static class Entry implements Comparable<Entry> {
+    private final Appointment appointment;
+    private final long sortKey;
+    private final long sequence;
+
+    Entry(Appointment appointment, long sequence) {
+      this.appointment = appointment;
+      this.sortKey = appointment.getSortKey();
+      this.sequence = sequence;
+    }
+
+    private Entry(long sortKey) {
+      this.appointment = null;
+      this.sortKey = sortKey;
+      this.sequence = Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns an entry that sorts before every appointment that begins at or after the
+     * given minute, and after every appointment that begins before it.
+     */
+    static Entry before(long minute) {
+      if (minute <= Integer.MIN_VALUE) {
+        return new Entry(Long.MIN_VALUE);
+      }
+      if (minute > Integer.MAX_VALUE) {
+        return new Entry(Long.MAX_VALUE);
+      }
+      return new Entry(Appointment.sortKey((int) minute, Integer.MIN_VALUE));
+    }
+
+    @Override
+    public int compareTo(Entry other) {
+      int compare = Long.compare(this.sortKey, other.sortKey);
+      if (compare != 0) return compare;
+
+      if (this.appointment == null || other.appointment == null) {
+        return Long.compare(this.sequence, other.sequence);
+      }
+      compare = this.appointment.getDescription().compareTo(other.appointment.getDescription());
+      if (compare != 0) return compare;
+
+      return Long.compare(this.sequence, other.sequence);
+    }
+  }
+
+  /**
+   * An unmodifiable view of a set of entries as the appointments they hold.
+   */
+  private class EntryView extends AbstractCollection<Appointment> {
+    private final NavigableSet<Entry> view;
+
+    EntryView(NavigableSet<Entry> view) {
+      this.view = view;
+    }
+
+    @Override
+    public int size() {
+      return this.view == entries ? size.get() : this.view.size();
+    }
+
+    @Override
+    public Iterator<Appointment> iterator() {
+      Iterator<Entry> iterator = this.view.iterator();
+      return new Iterator<Appointment>() {
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Appointment next() {
+          return iterator.next().appointment;
+        }
+      };
+    }
+  }
+}
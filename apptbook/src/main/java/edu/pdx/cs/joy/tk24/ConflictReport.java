@@ -0,0 +1,190 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The appointments in an appointment book that conflict with each other, grouped into
+ * clusters.  Two appointments conflict when they overlap, and a cluster is a maximal run
+ * of appointments in which each appointment overlaps the time covered by the appointments
+ * before it.  Appointments that merely touch, where one ends as the next begins, do not
+ * conflict.
+ *
+ * Clusters are found by sweeping once over the appointments in begin-time order while
+ * keeping track of the latest end time seen so far.  Large books are split into chunks
+ * that are swept in parallel, and clusters that cross the boundary between two chunks
+ * are stitched back together.
+ */
+public class ConflictReport {
+
+  /**
+   * Books with at least this many appointments are swept in parallel.
+   */
+  static final int PARALLEL_THRESHOLD = 10_000;
+
+  /**
+   * The number of appointments swept by a single fork/join task.
+   */
+  private static final int CHUNK_SIZE = 4096;
+
+  private final List<List<Appointment>> clusters;
+
+  private ConflictReport(List<List<Appointment>> clusters) {
+    this.clusters = Collections.unmodifiableList(clusters);
+  }
+
+  /**
+   * Finds the conflicting appointments among appointments that are sorted by begin time.
+   *
+   * @param sorted The appointments, sorted in their natural order
+   * @return The conflicts among the appointments
+   */
+  static ConflictReport find(Appointment[] sorted) {
+    List<Cluster> clusters;
+    if (sorted.length < PARALLEL_THRESHOLD) {
+      clusters = sweep(sorted, 0, sorted.length);
+    } else {
+      clusters = ForkJoinPool.commonPool().invoke(new SweepTask(sorted, 0, sorted.length));
+    }
+
+    List<Appointment> appointments = Collections.unmodifiableList(Arrays.asList(sorted));
+    List<List<Appointment>> conflicts = new ArrayList<>();
+    for (Cluster cluster : clusters) {
+      if (cluster.to - cluster.from > 1) {
+        conflicts.add(appointments.subList(cluster.from, cluster.to));
+      }
+    }
+    return new ConflictReport(conflicts);
+  }
+
+  /**
+   * Returns the clusters of conflicting appointments in begin-time order.  Each cluster
+   * contains at least two appointments, in begin-time order.
+   *
+   * @return An unmodifiable list of the clusters of conflicting appointments
+   */
+  public List<List<Appointment>> getClusters() {
+    return this.clusters;
+  }
+
+  /**
+   * Returns whether any appointments conflict.
+   *
+   * @return {@code true} if at least two appointments overlap
+   */
+  public boolean hasConflicts() {
+    return !this.clusters.isEmpty();
+  }
+
+  /**
+   * Returns the number of appointments that conflict with at least one other appointment.
+   *
+   * @return The number of appointments in all of the clusters
+   */
+  public int getConflictingAppointmentCount() {
+    int count = 0;
+    for (List<Appointment> cluster : this.clusters) {
+      count += cluster.size();
+    }
+    return count;
+  }
+
+  /**
+   * Returns a summary of the conflicts.
+   *
+   * @return The number of clusters and of conflicting appointments
+   */
+  @Override
+  public String toString() {
+    return this.clusters.size() + " conflicts involving " + getConflictingAppointmentCount() + " appointments";
+  }
+
+  /**
+   * Sweeps over a range of sorted appointments and returns all of its clusters, including
+   * clusters of one appointment, which may still be joined to a neighbouring range.
+   */
+  private static List<Cluster> sweep(Appointment[] sorted, int from, int to) {
+    List<Cluster> clusters = new ArrayList<>();
+    Cluster current = null;
+    for (int i = from; i < to; i++) {
+      Appointment appointment = sorted[i];
+      if (current != null && appointment.getBeginMinute() < current.maxEnd) {
+        current.to = i + 1;
+        current.maxEnd = Math.max(current.maxEnd, appointment.getEndMinute());
+      } else {
+        current = new Cluster(i, appointment.getEndMinute());
+        clusters.add(current);
+      }
+    }
+    return clusters;
+  }
+
+  /**
+   * Appends the clusters of a range to the clusters of the range just before it, joining
+   * the clusters at the start of the later range that overlap the last earlier cluster.
+   */
+  private static List<Cluster> stitch(Appointment[] sorted, List<Cluster> before, List<Cluster> after) {
+    if (before.isEmpty()) {
+      return after;
+    }
+
+    Cluster last = before.get(before.size() - 1);
+    int i = 0;
+    while (i < after.size() && sorted[after.get(i).from].getBeginMinute() < last.maxEnd) {
+      Cluster next = after.get(i++);
+      last.to = next.to;
+      last.maxEnd = Math.max(last.maxEnd, next.maxEnd);
+    }
+    before.addAll(after.subList(i, after.size()));
+    return before;
+  }
+
+  /**
+   * A run of appointments, from index {@code from} inclusive to {@code to} exclusive,
+   * and the latest minute at which any of them ends.
+   */
+  private static class Cluster {
+    final int from;
+    int to;
+    int maxEnd;
+
+    Cluster(int from, int maxEnd) {
+      this.from = from;
+      this.to = from + 1;
+      this.maxEnd = maxEnd;
+    }
+  }
+
+  /**
+   * Sweeps a range of sorted appointments by splitting it in half until the halves are
+   * small enough to sweep directly, and then stitching the halves back together.
+   */
+  private static class SweepTask extends RecursiveTask<List<Cluster>> {
+    private final Appointment[] sorted;
+    private final int from;
+    private final int to;
+
+    SweepTask(Appointment[] sorted, int from, int to) {
+      this.sorted = sorted;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<Cluster> compute() {
+      if (this.to - this.from <= CHUNK_SIZE) {
+        return sweep(this.sorted, this.from, this.to);
+      }
+
+      int middle = (this.from + this.to) >>> 1;
+      SweepTask left = new SweepTask(this.sorted, this.from, middle);
+      left.fork();
+      List<Cluster> right = new SweepTask(this.sorted, middle, this.to).compute();
+      return stitch(this.sorted, left.join(), right);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size pool of appointment descriptions that lets many appointments share
+ * one {@link String} for a description that occurs over and over again, such as
+ * "Standup" or "Lunch".
+ *
+ * The pool is a direct-mapped cache: each description hashes to a single slot,
+ * and a description that finds its slot holding a different string replaces it.
+ * The pool therefore never holds more than its capacity, keeps the descriptions
+ * that recur most often, and needs no locking to be shared between threads.
+ *
+ * The pool counts its lookups so that the effect of deduplication can be reported.
+ */
+public class DescriptionPool {
+
+  private static final int DEFAULT_CAPACITY = 4096;
+
+  private static final DescriptionPool GLOBAL = new DescriptionPool(DEFAULT_CAPACITY);
+
+  private final String[] slots;
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder bytesSaved = new LongAdder();
+
+  /**
+   * Creates a new, empty pool.
+   *
+   * @param capacity The number of descriptions the pool can hold, rounded up to a power of two
+   */
+  public DescriptionPool(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.slots = new String[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+  }
+
+  /**
+   * Returns the pool that is shared by the parsers and the servlet.
+   *
+   * @return The global description pool
+   */
+  public static DescriptionPool global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Returns the pooled string equal to the given description, adding the description
+   * to the pool if an equal string is not already there.
+   *
+   * @param description The description to canonicalize
+   * @return A string equal to {@code description}, shared with other callers if possible
+   */
+  public String canonicalize(String description) {
+    this.lookups.increment();
+    int slot = spread(description.hashCode()) & (this.slots.length - 1);
+
+    String pooled = this.slots[slot];
+    if (description.equals(pooled)) {
+      this.hits.increment();
+      this.bytesSaved.add(estimateSize(description));
+      return pooled;
+    }
+
+    this.slots[slot] = description;
+    return description;
+  }
+
+  /**
+   * Returns the number of descriptions that have been looked up in this pool.
+   *
+   * @return The number of lookups
+   */
+  public long getLookupCount() {
+    return this.lookups.sum();
+  }
+
+  /**
+   * Returns the fraction of lookups that were answered with a string that was already pooled.
+   *
+   * @return The deduplication ratio, between 0 and 1
+   */
+  public double getDedupRatio() {
+    long lookups = getLookupCount();
+    return lookups == 0 ? 0.0 : (double) this.hits.sum() / lookups;
+  }
+
+  /**
+   * Returns an estimate of the number of heap bytes saved by sharing pooled strings,
+   * assuming that every string the pool deduplicated would otherwise have been kept.
+   *
+   * @return The estimated number of bytes saved
+   */
+  public long getBytesSaved() {
+    return this.bytesSaved.sum();
+  }
+
+  /**
+   * Returns a one-line summary of the effect of this pool.
+   *
+   * @return A summary of the lookups, deduplication ratio and bytes saved
+   */
+  @Override
+  public String toString() {
+    return String.format("%d descriptions pooled, %.1f%% deduplicated, %d bytes saved",
+      getLookupCount(), getDedupRatio() * 100, getBytesSaved());
+  }
+
+  /**
+   * Mixes the high bits of a hash code into the low bits used to pick a slot.
+   */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Estimates the heap used by a string: a 24-byte {@code String} object plus a byte
+   * array with a 16-byte header, rounded up to a multiple of 8.  Strings that cannot be
+   * stored in Latin-1 use two bytes per character.
+   */
+  private static long estimateSize(String s) {
+    int bytes = s.length();
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) > 0xFF) {
+        bytes = s.length() * 2;
+        break;
+      }
+    }
+    return 24 + ((16 + bytes + 7) & ~7);
+  }
+}
@@ -0,0 +1,265 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.AppointmentBookParser;
+import edu.pdx.cs.joy.ParserException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses an {@link AppointmentBook} from a text file in the format read by
+ * {@link TextParser}, using every core for large files.
+ *
+ * After the owner line, the file is split at line boundaries into chunks of a few
+ * megabytes.  Each chunk is memory-mapped with {@link FileChannel#map}, decoded and
+ * parsed on the common {@link ForkJoinPool}.  The appointments parsed from every chunk
+ * are kept until all of the chunks are done, and then added to the book in file order,
+ * so the memory used grows with the size of the whole file.  The decoded text of a chunk
+ * can be collected once the chunk is parsed, but its mapping is only released when the
+ * garbage collector reclaims it.
+ * If several lines are malformed, the exception for the first of them is thrown, as it
+ * would be by {@link TextParser}.
+ *
+ * The file must be in a charset in which line feeds and carriage returns are single
+ * bytes that are never part of another character, such as UTF-8 or ISO-8859-1.
+ */
+public class MappedTextParser implements AppointmentBookParser<AppointmentBook> {
+
+  private static final int MIN_CHUNK_SIZE = 1 << 20;
+  private static final int MAX_CHUNK_SIZE = 64 << 20;
+
+  private final Path file;
+  private final Charset charset;
+  private final int chunkSize;
+
+  /**
+   * Creates a new parser for a file in the platform's default charset, which is
+   * the charset that {@link java.io.FileReader} uses.
+   *
+   * @param file The file to parse
+   */
+  public MappedTextParser(Path file) {
+    this(file, Charset.defaultCharset());
+  }
+
+  /**
+   * Creates a new parser for a file in the given charset.
+   *
+   * @param file    The file to parse
+   * @param charset The charset of the file
+   */
+  public MappedTextParser(Path file, Charset charset) {
+    this(file, charset, 0);
+  }
+
+  /**
+   * Creates a new parser that splits the file into chunks of about the given size.
+   *
+   * @param file      The file to parse
+   * @param charset   The charset of the file
+   * @param chunkSize The number of bytes in each chunk, or zero to choose a size from
+   *                  the size of the file and the number of cores
+   */
+  MappedTextParser(Path file, Charset charset, int chunkSize) {
+    this.file = file;
+    this.charset = charset;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Parses the file and returns an {@link AppointmentBook} with its owner and appointments.
+   *
+   * @return The parsed {@link AppointmentBook}
+   * @throws ParserException If the file is malformed or an I/O error occurs
+   */
+  @Override
+  public AppointmentBook parse() throws ParserException {
+    try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size == 0) {
+        throw new ParserException("Missing owner");
+      }
+
+      long ownerEnd = endOfLine(channel, 0);
+      if (ownerEnd > Integer.MAX_VALUE) {
+        throw new ParserException("Owner line is too long");
+      }
+      String owner = decode(channel, 0, ownerEnd).toString();
+
+      List<Long> boundaries = new ArrayList<>();
+      boundaries.add(startOfNextLine(channel, ownerEnd));
+      long chunkSize = chooseChunkSize(size);
+      while (boundaries.get(boundaries.size() - 1) < size) {
+        long start = boundaries.get(boundaries.size() - 1);
+        long end = start + chunkSize >= size ? size : startOfNextLine(channel, endOfLine(channel, start + chunkSize));
+        if (end - start > Integer.MAX_VALUE) {
+          throw new ParserException("Line is too long at byte " + start);
+        }
+        boundaries.add(end);
+      }
+
+      Chunk[] chunks = new Chunk[boundaries.size() - 1];
+      for (int i = 0; i < chunks.length; i++) {
+        chunks[i] = new Chunk(boundaries.get(i), boundaries.get(i + 1));
+      }
+      if (chunks.length > 0) {
+        ForkJoinPool.commonPool().invoke(new ParseTask(channel, chunks, 0, chunks.length));
+      }
+
+      List<Appointment> appointments = new ArrayList<>();
+      List<RecurringAppointment> recurring = new ArrayList<>();
+      for (Chunk chunk : chunks) {
+        if (chunk.error != null) {
+          throw chunk.error;
+        }
+        appointments.addAll(chunk.appointments);
+        recurring.addAll(chunk.recurring);
+      }
+
+      AppointmentBook book = new AppointmentBook(owner);
+      book.addAll(appointments);
+      for (RecurringAppointment appointment : recurring) {
+        book.addRecurringAppointment(appointment);
+      }
+      return book;
+
+    } catch (IOException e) {
+      throw new ParserException("While parsing appointment book text", e);
+    }
+  }
+
+  /**
+   * Returns the size of the chunks: about four for each core, but no smaller than a
+   * mebibyte, so that small files are not split needlessly.
+   */
+  private long chooseChunkSize(long size) {
+    if (this.chunkSize > 0) {
+      return this.chunkSize;
+    }
+    long perTask = size / (4L * ForkJoinPool.getCommonPoolParallelism());
+    return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, perTask));
+  }
+
+  /**
+   * Returns the position of the first line feed or carriage return at or after the
+   * given position, or the size of the file if there is none.
+   */
+  private static long endOfLine(FileChannel channel, long position) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    long size = channel.size();
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      for (int i = 0; i < read; i++) {
+        byte b = buffer.get(i);
+        if (b == '\n' || b == '\r') {
+          return position + i;
+        }
+      }
+      position += Math.max(read, 0);
+    }
+    return size;
+  }
+
+  /**
+   * Returns the position after the line ending at the given position, which is a line
+   * feed, a carriage return, a carriage return and a line feed, or the end of the file.
+   */
+  private static long startOfNextLine(FileChannel channel, long endOfLine) throws IOException {
+    long size = channel.size();
+    if (endOfLine >= size) {
+      return size;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(2);
+    channel.read(buffer, endOfLine);
+    if (buffer.position() == 2 && buffer.get(0) == '\r' && buffer.get(1) == '\n') {
+      return endOfLine + 2;
+    }
+    return endOfLine + 1;
+  }
+
+  /**
+   * Maps part of the file into memory and decodes it.
+   */
+  private CharBuffer decode(FileChannel channel, long from, long to) throws IOException {
+    return this.charset.decode(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+  }
+
+  /**
+   * A part of the file that begins at the start of a line and ends at the end of one,
+   * and the appointments on its lines once it has been parsed.
+   */
+  private static class Chunk implements TextParser.Listener {
+    private final long from;
+    private final long to;
+    private final List<Appointment> appointments = new ArrayList<>();
+    private final List<RecurringAppointment> recurring = new ArrayList<>();
+    private ParserException error;
+
+    Chunk(long from, long to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public void owner(String owner) {
+      throw new IllegalStateException("A chunk has no owner line");
+    }
+
+    @Override
+    public void appointment(Appointment appointment) {
+      this.appointments.add(appointment);
+    }
+
+    @Override
+    public void recurringAppointment(RecurringAppointment appointment) {
+      this.recurring.add(appointment);
+    }
+  }
+
+  /**
+   * Parses a range of chunks, splitting the range in half until it holds a single chunk.
+   */
+  private class ParseTask extends RecursiveAction {
+    private final FileChannel channel;
+    private final Chunk[] chunks;
+    private final int from;
+    private final int to;
+
+    ParseTask(FileChannel channel, Chunk[] chunks, int from, int to) {
+      this.channel = channel;
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from > 1) {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new ParseTask(this.channel, this.chunks, this.from, middle),
+          new ParseTask(this.channel, this.chunks, middle, this.to));
+        return;
+      }
+
+      Chunk chunk = this.chunks[this.from];
+      try {
+        CharBuffer text = decode(this.channel, chunk.from, chunk.to);
+        TextParser.parseLines(text, 0, text.limit(), chunk);
+      } catch (ParserException e) {
+        chunk.error = e;
+      } catch (IOException e) {
+        chunk.error = new ParserException("While parsing appointment book text", e);
+      }
+    }
+  }
+}
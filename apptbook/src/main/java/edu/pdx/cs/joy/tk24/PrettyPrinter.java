@@ -1,14 +1,12 @@
 package edu.pdx.cs.joy.tk24;
 
+import edu.pdx.cs.joy.AbstractAppointmentBook;
 import edu.pdx.cs.joy.AppointmentBookDumper;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * A class that formats and outputs an appointment book in a readable form.
@@ -16,7 +14,7 @@ import java.util.List;
  * The output includes the owner's name and details for each appointment,
  * including description, begin time, end time, and duration in minutes.
  */
-public class PrettyPrinter implements AppointmentBookDumper<AppointmentBook> {
+public class PrettyPrinter implements AppointmentBookDumper<AbstractAppointmentBook<Appointment>> {
     private final Writer writer;
 
     /**
@@ -32,20 +30,19 @@ public class PrettyPrinter implements AppointmentBookDumper<AppointmentBook> {
      * Outputs a formatted and sorted list of appointments for the given appointment book.
      *
      * Each appointment is printed with its description, begin time, end time,
-     * and duration (in minutes). Appointments are sorted before printing.
+     * and duration (in minutes). Appointments are printed in the book's sorted order,
+     * and each occurrence of a recurring appointment is created as it is printed.
      *
      * @param book The AppointmentBook to pretty print
      * @throws IOException If writing to the output fails
      */
     @Override
-    public void dump(AppointmentBook book) throws IOException {
+    public void dump(AbstractAppointmentBook<Appointment> book) throws IOException {
         PrintWriter printWriter = new PrintWriter(writer);
 
         printWriter.println("Appointment Book for: " + book.getOwnerName());
-        List<Appointment>appointments = new ArrayList<>(book.getAppointments());
-        Collections.sort(appointments);
 
-        for (Appointment appointment : appointments) {
+        for (Appointment appointment : book.getAppointments()) {
             printWriter.println("Description : " + appointment.getDescription());;
             printWriter.println("Begin Time : " + appointment.getBeginTimeString());
             printWriter.println("End Time   : " + appointment.getEndTimeString());
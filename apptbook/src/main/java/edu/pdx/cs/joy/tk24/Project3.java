@@ -4,7 +4,6 @@ import edu.pdx.cs.joy.ParserException;
 
 import java.io.*;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +13,11 @@ import java.util.List;
  */
 public class Project3 {
 
+  /**
+   * Text files of at least this many bytes are parsed in parallel by a {@link MappedTextParser}.
+   */
+  static final long MAPPED_TEXT_FILE_SIZE = 8L << 20;
+
   /**
    * The main method that processes command-line arguments and either
    * prints a README, prints the new appointment, or reports errors.
@@ -31,6 +35,7 @@ public class Project3 {
     boolean print = false;
     boolean readme = false;
     String textFile = null;
+    String binaryFile = null;
     String prettyFile = null;
 
     List<String> remainingArgs = new ArrayList<>();
@@ -49,6 +54,13 @@ public class Project3 {
         }
         textFile = args[++i];
 
+      } else if (arg.equals("-binaryFile")) {
+        if (i + 1 >= args.length || args[i + 1].startsWith("-")) {
+          System.err.println("Missing filename after -binaryFile");
+          return;
+        }
+        binaryFile = args[++i];
+
       }
       //else if (arg.equals("-pretty")) {
         //if (i + 1 >= args.length || args[i + 1].startsWith("-")) {
@@ -88,6 +100,7 @@ public class Project3 {
                   -README : Prints this README and exits
                   -print  : Prints the new appointment
                   -textFile file : Reads/writes appointment book from/to a text file
+                  -binaryFile file : Reads/writes appointment book from/to a compact binary file
                   -pretty file : Pretty print the appointment book (use "-" for standard output)
               
                 Arguments:
@@ -99,6 +112,11 @@ public class Project3 {
       return;
     }
 
+    if (textFile != null && binaryFile != null) {
+      System.err.println("Cannot use both -textFile and -binaryFile");
+      return;
+    }
+
     //Validate the number of arguments
     if (remainingArgs.size() < 8) {
       System.err.println("Missing command line arguments");
@@ -115,18 +133,17 @@ public class Project3 {
     String beginTimeStr = remainingArgs.get(2) + " " + remainingArgs.get(3) + " " + remainingArgs.get(4);
     String endTimeStr = remainingArgs.get(5) + " " + remainingArgs.get(6) + " " + remainingArgs.get(7);
 
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
     LocalDateTime beginTime, endTime;
 
     try {
-      beginTime = LocalDateTime.parse(beginTimeStr, formatter);
+      beginTime = DateTimeCodec.parse(beginTimeStr);
     } catch (DateTimeParseException e) {
       System.err.println("Invalid begin time format");
       return;
     }
 
     try {
-      endTime = LocalDateTime.parse(endTimeStr, formatter);
+      endTime = DateTimeCodec.parse(endTimeStr);
     } catch (DateTimeParseException e) {
       System.err.println("Invalid end time format");
       return;
@@ -137,15 +154,22 @@ public class Project3 {
       return;
     }
 
-    Appointment appt = new Appointment(description, beginTime, endTime);
+    Appointment appt;
+    try {
+      appt = new Appointment(description, beginTime, endTime);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      return;
+    }
+
     AppointmentBook book;
 
-    if (textFile != null) {
-      File file = new File(textFile);
+    String bookFile = textFile != null ? textFile : binaryFile;
+    if (bookFile != null) {
+      File file = new File(bookFile);
       if (file.exists()) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-          TextParser parser = new TextParser(reader);
-          book = parser.parse();
+        try {
+          book = textFile != null ? parseTextFile(file) : new BinaryParser(new FileInputStream(file)).parse();
 
           if (!book.getOwnerName().equals(owner)) {
             System.err.println("Invalid owner name");
@@ -183,6 +207,15 @@ public class Project3 {
       }
     }
 
+    //Write updated appointment book to binary file if specified
+    if (binaryFile != null) {
+      try {
+        new BinaryDumper(new FileOutputStream(binaryFile)).dump(book);
+      } catch (IOException e) {
+        System.err.println(e.getMessage());
+      }
+    }
+
     //Pretty print to file or stdout if requested
     if (prettyFile != null) {
       try (Writer writer = prettyFile.equals("-")
@@ -195,10 +228,21 @@ public class Project3 {
       }
     }
   }
-}
-
-
-
-
-
 
+  /**
+   * Parses the appointment book in a text file, in parallel if the file is large.
+   *
+   * @param file The text file to parse
+   * @return The parsed appointment book
+   * @throws ParserException If the file is malformed
+   * @throws IOException     If the file cannot be read
+   */
+  static AppointmentBook parseTextFile(File file) throws ParserException, IOException {
+    if (file.length() >= MAPPED_TEXT_FILE_SIZE) {
+      return new MappedTextParser(file.toPath()).parse();
+    }
+    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+      return new TextParser(reader).parse();
+    }
+  }
+}
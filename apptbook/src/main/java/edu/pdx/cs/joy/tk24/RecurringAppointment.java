@@ -0,0 +1,412 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An appointment that repeats every few days or weeks, either until a given date or for
+ * a given number of occurrences, with optional exceptions on which it does not occur.
+ *
+ * A recurring appointment is stored as its first occurrence and its rule, and its
+ * occurrences are only created as {@link Appointment}s when they are read, so a series
+ * of any length takes the same space.  Occurrences are a whole number of days apart, so
+ * the occurrences that begin or overlap in a span of time are found with arithmetic
+ * instead of by searching.
+ *
+ * The rule has a textual form used by {@link TextDumper} and {@link TextParser}, made of
+ * {@code ;}-separated {@code NAME=value} parts, for example
+ * {@code FREQ=WEEKLY;INTERVAL=2;UNTIL=12/19/2025;EXDATE=11/28/2025}.  {@code FREQ} is
+ * {@code DAILY} or {@code WEEKLY}, {@code INTERVAL} defaults to 1, exactly one of
+ * {@code UNTIL} and {@code COUNT} is required, and {@code EXDATE} lists the dates that
+ * are skipped, separated by commas.
+ */
+public class RecurringAppointment implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * How often a recurring appointment repeats.
+   */
+  public enum Frequency {
+    DAILY(1), WEEKLY(7);
+
+    private final int days;
+
+    Frequency(int days) {
+      this.days = days;
+    }
+  }
+
+  private static final int MINUTES_PER_DAY = 24 * 60;
+
+  private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+  private final String description;
+  private final int firstBeginMinute;
+  private final int lengthMinutes;
+  private final Frequency frequency;
+  private final int interval;
+  private final LocalDate until;
+  private final int count;
+
+  /**
+   * The number of times the rule repeats, including the dates that are skipped.
+   */
+  private final int slots;
+
+  /**
+   * The skipped dates that fall on an occurrence, as sorted days since the epoch.
+   */
+  private final int[] exceptionDays;
+
+  /**
+   * Creates a recurring appointment that repeats until a given date.
+   *
+   * @param description A short description of the appointment
+   * @param beginTime   The start time of the first occurrence
+   * @param endTime     The end time of the first occurrence
+   * @param frequency   Whether the appointment repeats daily or weekly
+   * @param interval    The number of days or weeks between occurrences
+   * @param until       The last date on which the appointment may begin
+   * @param exceptions  The dates on which the appointment does not occur
+   * @throws IllegalArgumentException if the end time is before the begin time, if the interval
+   *                                  is not positive, or if {@code until} is before the first occurrence
+   */
+  public RecurringAppointment(String description, LocalDateTime beginTime, LocalDateTime endTime,
+                              Frequency frequency, int interval, LocalDate until, Collection<LocalDate> exceptions) {
+    this(description, beginTime, endTime, frequency, interval, until, 0, exceptions);
+  }
+
+  /**
+   * Creates a recurring appointment that repeats a given number of times.
+   *
+   * @param description A short description of the appointment
+   * @param beginTime   The start time of the first occurrence
+   * @param endTime     The end time of the first occurrence
+   * @param frequency   Whether the appointment repeats daily or weekly
+   * @param interval    The number of days or weeks between occurrences
+   * @param count       The number of times the appointment repeats, including skipped dates
+   * @param exceptions  The dates on which the appointment does not occur
+   * @throws IllegalArgumentException if the end time is before the begin time, or if the interval
+   *                                  or count is not positive
+   */
+  public RecurringAppointment(String description, LocalDateTime beginTime, LocalDateTime endTime,
+                              Frequency frequency, int interval, int count, Collection<LocalDate> exceptions) {
+    this(description, beginTime, endTime, frequency, interval, null, count, exceptions);
+  }
+
+  private RecurringAppointment(String description, LocalDateTime beginTime, LocalDateTime endTime,
+                               Frequency frequency, int interval, LocalDate until, int count,
+                               Collection<LocalDate> exceptions) {
+    if (endTime.isBefore(beginTime)) {
+      throw new IllegalArgumentException("End time cannot be before begin time");
+    }
+    if (interval < 1) {
+      throw new IllegalArgumentException("Interval must be positive: " + interval);
+    }
+
+    this.description = description;
+    this.firstBeginMinute = Appointment.toEpochMinute(beginTime);
+    this.lengthMinutes = Appointment.toEpochMinute(endTime) - this.firstBeginMinute;
+    this.frequency = frequency;
+    this.interval = interval;
+    this.until = until;
+    this.count = count;
+
+    if (until != null) {
+      if (until.isBefore(beginTime.toLocalDate())) {
+        throw new IllegalArgumentException("Recurrence ends before it begins: " + until);
+      }
+      long lastDay = until.toEpochDay() - firstDay();
+      this.slots = (int) Math.min(Integer.MAX_VALUE, lastDay / stepDays() + 1);
+    } else {
+      if (count < 1) {
+        throw new IllegalArgumentException("Count must be positive: " + count);
+      }
+      this.slots = count;
+    }
+
+    long latestBegin = (long) Integer.MAX_VALUE - this.lengthMinutes;
+    if (this.slots - 1 > (latestBegin - this.firstBeginMinute) / periodMinutes()) {
+      throw new IllegalArgumentException("Recurrence ends too far in the future");
+    }
+
+    this.exceptionDays = exceptions.stream()
+      .mapToLong(LocalDate::toEpochDay)
+      .filter(day -> day >= firstDay() && (day - firstDay()) % stepDays() == 0
+        && (day - firstDay()) / stepDays() < this.slots)
+      .mapToInt(day -> (int) day)
+      .sorted()
+      .distinct()
+      .toArray();
+  }
+
+  /**
+   * Creates a recurring appointment from the textual form of its rule.
+   *
+   * @param description A short description of the appointment
+   * @param beginTime   The start time of the first occurrence
+   * @param endTime     The end time of the first occurrence
+   * @param rule        The rule, such as {@code FREQ=WEEKLY;COUNT=10}
+   * @return The recurring appointment
+   * @throws IllegalArgumentException if the rule is malformed
+   */
+  public static RecurringAppointment parse(String description, LocalDateTime beginTime, LocalDateTime endTime,
+                                           String rule) {
+    Frequency frequency = null;
+    int interval = 1;
+    LocalDate until = null;
+    int count = 0;
+    List<LocalDate> exceptions = new ArrayList<>();
+
+    try {
+      for (String part : rule.split(";")) {
+        String[] nameAndValue = part.split("=", 2);
+        if (nameAndValue.length != 2) {
+          throw new IllegalArgumentException("Malformed recurrence rule: " + rule);
+        }
+        String value = nameAndValue[1].trim();
+        switch (nameAndValue[0].trim()) {
+          case "FREQ":
+            frequency = Frequency.valueOf(value);
+            break;
+          case "INTERVAL":
+            interval = Integer.parseInt(value);
+            break;
+          case "UNTIL":
+            until = LocalDate.parse(value, DATE_FORMATTER);
+            break;
+          case "COUNT":
+            count = Integer.parseInt(value);
+            break;
+          case "EXDATE":
+            for (String date : value.split(",")) {
+              exceptions.add(LocalDate.parse(date.trim(), DATE_FORMATTER));
+            }
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown recurrence rule part: " + part);
+        }
+      }
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid date in recurrence rule: " + rule, e);
+    }
+
+    if (frequency == null) {
+      throw new IllegalArgumentException("Recurrence rule has no FREQ: " + rule);
+    }
+    if ((until == null) == (count == 0)) {
+      throw new IllegalArgumentException("Recurrence rule needs exactly one of UNTIL and COUNT: " + rule);
+    }
+    return new RecurringAppointment(description, beginTime, endTime, frequency, interval, until, count, exceptions);
+  }
+
+  /**
+   * Returns the textual form of this appointment's rule.
+   *
+   * @return The rule, such as {@code FREQ=WEEKLY;COUNT=10}
+   */
+  public String getRule() {
+    StringBuilder rule = new StringBuilder("FREQ=").append(this.frequency);
+    if (this.interval != 1) {
+      rule.append(";INTERVAL=").append(this.interval);
+    }
+    if (this.until != null) {
+      rule.append(";UNTIL=").append(this.until.format(DATE_FORMATTER));
+    } else {
+      rule.append(";COUNT=").append(this.count);
+    }
+    for (int i = 0; i < this.exceptionDays.length; i++) {
+      rule.append(i == 0 ? ";EXDATE=" : ",").append(LocalDate.ofEpochDay(this.exceptionDays[i]).format(DATE_FORMATTER));
+    }
+    return rule.toString();
+  }
+
+  /**
+   * Returns the description of this appointment.
+   *
+   * @return A short description of the appointment
+   */
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Returns the start time of the first occurrence of this appointment.
+   *
+   * @return The start time of the first occurrence
+   */
+  public LocalDateTime getBeginTime() {
+    return Appointment.fromEpochMinute(this.firstBeginMinute);
+  }
+
+  /**
+   * Returns the end time of the first occurrence of this appointment.
+   *
+   * @return The end time of the first occurrence
+   */
+  public LocalDateTime getEndTime() {
+    return Appointment.fromEpochMinute((long) this.firstBeginMinute + this.lengthMinutes);
+  }
+
+  /**
+   * Returns the number of times this appointment occurs, not counting skipped dates.
+   *
+   * @return The number of occurrences
+   */
+  public int size() {
+    return this.slots - this.exceptionDays.length;
+  }
+
+  /**
+   * Returns the occurrences of this appointment in sorted order.
+   *
+   * @return An iterator over all of the occurrences
+   */
+  Iterator<Appointment> occurrences() {
+    return new OccurrenceIterator(0, this.slots);
+  }
+
+  /**
+   * Returns the occurrences of this appointment that begin at or after {@code fromMinute}
+   * and before {@code toMinute}, in sorted order.
+   *
+   * @param fromMinute The earliest begin minute to include
+   * @param toMinute   The begin minute at which to stop
+   * @return An iterator over the occurrences that begin in the range
+   */
+  Iterator<Appointment> occurrencesBeginning(long fromMinute, long toMinute) {
+    int from = indexAtOrAfter(fromMinute);
+    return new OccurrenceIterator(from, Math.max(from, indexAtOrAfter(toMinute)));
+  }
+
+  /**
+   * Returns the number of occurrences of this appointment that begin at or after
+   * {@code fromMinute} and before {@code toMinute}.
+   *
+   * @param fromMinute The earliest begin minute to include
+   * @param toMinute   The begin minute at which to stop
+   * @return The number of occurrences that begin in the range
+   */
+  int countBeginning(long fromMinute, long toMinute) {
+    int from = indexAtOrAfter(fromMinute);
+    int to = Math.max(from, indexAtOrAfter(toMinute));
+    if (from == to) {
+      return 0;
+    }
+    return to - from - (exceptionIndex(dayOf(to - 1) + 1) - exceptionIndex(dayOf(from)));
+  }
+
+  /**
+   * Returns the occurrences of this appointment that begin before {@code endMinute} and
+   * end after {@code beginMinute}, in sorted order.
+   *
+   * @param beginMinute The beginning of the time span
+   * @param endMinute   The end of the time span
+   * @return An iterator over the occurrences that overlap the span
+   */
+  Iterator<Appointment> occurrencesOverlapping(long beginMinute, long endMinute) {
+    return occurrencesBeginning(beginMinute - this.lengthMinutes + 1, endMinute);
+  }
+
+  /**
+   * Returns the occurrences of this appointment that touch the span from {@code beginMinute}
+   * to {@code endMinute}: those that overlap it, and those of no length that begin in it.
+   *
+   * @param beginMinute The beginning of the time span
+   * @param endMinute   The end of the time span
+   * @return An iterator over the occurrences that touch the span
+   */
+  Iterator<Appointment> occurrencesTouching(long beginMinute, long endMinute) {
+    return occurrencesBeginning(beginMinute - Math.max(this.lengthMinutes, 1) + 1, endMinute);
+  }
+
+  private long firstDay() {
+    return Math.floorDiv(this.firstBeginMinute, MINUTES_PER_DAY);
+  }
+
+  private long stepDays() {
+    return (long) this.frequency.days * this.interval;
+  }
+
+  private long periodMinutes() {
+    return stepDays() * MINUTES_PER_DAY;
+  }
+
+  /**
+   * Returns the index of the first occurrence that begins at or after the given minute,
+   * or the number of slots if there is none.
+   */
+  private int indexAtOrAfter(long minute) {
+    if (minute <= this.firstBeginMinute) {
+      return 0;
+    }
+    if (minute > (long) this.firstBeginMinute + (this.slots - 1) * periodMinutes()) {
+      return this.slots;
+    }
+    long index = Math.floorDiv(minute - this.firstBeginMinute - 1, periodMinutes()) + 1;
+    return (int) Math.min(index, this.slots);
+  }
+
+  private long dayOf(int index) {
+    return firstDay() + index * stepDays();
+  }
+
+  /**
+   * Returns the number of exception days before the given day.
+   */
+  private int exceptionIndex(long day) {
+    int index = Arrays.binarySearch(this.exceptionDays, (int) Math.min(Integer.MAX_VALUE, day));
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Creates the occurrences of this appointment with indexes in a range, skipping the
+   * occurrences that fall on an exception day.
+   */
+  private class OccurrenceIterator implements Iterator<Appointment> {
+    private int next;
+    private final int to;
+    private int exception;
+
+    OccurrenceIterator(int from, int to) {
+      this.next = from;
+      this.to = to;
+      this.exception = exceptionIndex(dayOf(from));
+      skipExceptions();
+    }
+
+    private void skipExceptions() {
+      while (this.next < this.to && this.exception < exceptionDays.length
+        && exceptionDays[this.exception] == dayOf(this.next)) {
+        this.next++;
+        this.exception++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.next < this.to;
+    }
+
+    @Override
+    public Appointment next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int begin = (int) (firstBeginMinute + this.next * periodMinutes());
+      this.next++;
+      skipExceptions();
+      return new Appointment(description, begin, begin + lengthMinutes);
+    }
+  }
+}
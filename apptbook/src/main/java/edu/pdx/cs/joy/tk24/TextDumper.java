@@ -1,10 +1,10 @@
 package edu.pdx.cs.joy.tk24;
 
+import edu.pdx.cs.joy.AbstractAppointmentBook;
 import edu.pdx.cs.joy.AppointmentBookDumper;
 
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.time.format.DateTimeFormatter;
 
 /**
  * A class that writes the contents of an AppointmentBook to a text format.
@@ -13,9 +13,12 @@ import java.time.format.DateTimeFormatter;
  * Owner Name
  * description|begin time|end time
  *
+ * A recurring appointment in an {@link AppointmentBook} is written on a single line
+ * with its first occurrence and a fourth field containing its rule.
+ *
  * Dates and times are formatted as MM/dd/yyyy h:mm a.
  */
-public class TextDumper implements AppointmentBookDumper<AppointmentBook> {
+public class TextDumper implements AppointmentBookDumper<AbstractAppointmentBook<Appointment>> {
 
   private final Writer writer;
 
@@ -37,19 +40,34 @@ public class TextDumper implements AppointmentBookDumper<AppointmentBook> {
    * @param book The AppointmentBook to write
    */
   @Override
-  public void dump(AppointmentBook book) {
+  public void dump(AbstractAppointmentBook<Appointment> book) {
     try (
       PrintWriter pw = new PrintWriter(this.writer)
     ) {
       pw.println(book.getOwnerName());
 
-      DateTimeFormatter textFileFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
+      char[] time = new char[DateTimeCodec.MAX_LENGTH];
+
+      Iterable<Appointment> appointments = book.getAppointments();
+      if (book instanceof AppointmentBook) {
+        appointments = ((AppointmentBook) book).getOneTimeAppointments();
+      }
+      for(Appointment appointment : appointments) {
+        pw.write(appointment.getDescription());
+        pw.write('|');
+        pw.write(time, 0, DateTimeCodec.format(appointment.getBeginMinute(), time, 0));
+        pw.write('|');
+        pw.write(time, 0, DateTimeCodec.format(appointment.getEndMinute(), time, 0));
+        pw.println();
+      }
 
-      for(Appointment appointment : book.getAppointments()) {
-        String beginTime = appointment.getBeginTime().format(textFileFormatter);
-        String endTime = appointment.getEndTime().format(textFileFormatter);
+      if (book instanceof AppointmentBook) {
+        for (RecurringAppointment appointment : ((AppointmentBook) book).getRecurringAppointments()) {
+          String beginTime = DateTimeCodec.format(appointment.getBeginTime());
+          String endTime = DateTimeCodec.format(appointment.getEndTime());
 
-        pw.println(appointment.getDescription() + "|" + beginTime + "|" + endTime);
+          pw.println(appointment.getDescription() + "|" + beginTime + "|" + endTime + "|" + appointment.getRule());
+        }
       }
       pw.flush();
     }
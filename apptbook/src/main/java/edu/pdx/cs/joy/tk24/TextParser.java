@@ -6,19 +6,26 @@ import edu.pdx.cs.joy.ParserException;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Parses an {@link AppointmentBook} from plain text input.
  * Expects the first line to contain the owner's name,
  * followed by one line per appointment in the format:
  * description | begin time | end time
+ * A recurring appointment has a fourth field with its {@link RecurringAppointment} rule.
  */
 public class TextParser implements AppointmentBookParser<AppointmentBook> {
 
+  private static final int BUFFER_SIZE = 8192;
+
   private final Reader reader;
+  private final boolean dropDuplicates;
 
   /**
    * Creates a new parser with the given reader as its input source.
@@ -26,7 +33,52 @@ public class TextParser implements AppointmentBookParser<AppointmentBook> {
    * @param reader The reader to read text from
    */
   public TextParser(Reader reader) {
+    this(reader, false);
+  }
+
+  /**
+   * Creates a new parser with the given reader as its input source that may drop
+   * duplicate appointments.
+   *
+   * @param reader         The reader to read text from
+   * @param dropDuplicates If {@code true}, an appointment that is equal to one on an
+   *                       earlier line is left out of the parsed book
+   * @see AppointmentBook#addAllDistinct(java.util.Collection)
+   */
+  public TextParser(Reader reader, boolean dropDuplicates) {
     this.reader = reader;
+    this.dropDuplicates = dropDuplicates;
+  }
+
+  /**
+   * Receives the contents of an appointment book one line at a time as it is parsed.
+   *
+   * @see #parse(Listener)
+   */
+  public interface Listener {
+
+    /**
+     * Called once, before any appointment, with the name of the book's owner.
+     *
+     * @param owner The owner's name from the first line
+     */
+    void owner(String owner);
+
+    /**
+     * Called with each one-time appointment, in the order of the lines.
+     *
+     * @param appointment The appointment on the line that was just parsed
+     */
+    void appointment(Appointment appointment);
+
+    /**
+     * Called with each recurring appointment, in the order of the lines.  Recurring
+     * appointments are ignored unless this method is overridden.
+     *
+     * @param appointment The recurring appointment on the line that was just parsed
+     */
+    default void recurringAppointment(RecurringAppointment appointment) {
+    }
   }
 
   /**
@@ -34,54 +86,241 @@ public class TextParser implements AppointmentBookParser<AppointmentBook> {
    * with the owner and all valid appointments.
    *
    * The first line must contain the owner's name.
-   * Each following line must have exactly three fields separated by '|':
-   * description, begin time, and end time.
+   * Each following line must have three fields separated by '|':
+   * description, begin time, and end time, and may have a fourth field
+   * with the rule of a recurring appointment.
    *
    * @return The parsed {@link AppointmentBook}
    * @throws ParserException If the file is malformed or an I/O error occurs
    */
   @Override
   public AppointmentBook parse() throws ParserException {
-    try (
-      BufferedReader br = new BufferedReader(this.reader)
-    ) {
+    List<Appointment> appointments = new ArrayList<>();
+    List<RecurringAppointment> recurring = new ArrayList<>();
+    String[] owner = new String[1];
+    parse(new Listener() {
+      @Override
+      public void owner(String name) {
+        owner[0] = name;
+      }
 
-      String owner = br.readLine();
+      @Override
+      public void appointment(Appointment appointment) {
+        appointments.add(appointment);
+      }
 
-      if (owner == null) {
-        throw new ParserException("Missing owner");
+      @Override
+      public void recurringAppointment(RecurringAppointment appointment) {
+        recurring.add(appointment);
       }
+    });
 
-      AppointmentBook appointmentBook = new AppointmentBook(owner);
-      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a");
+    AppointmentBook appointmentBook = new AppointmentBook(owner[0]);
+    if (this.dropDuplicates) {
+      appointmentBook.addAllDistinct(appointments);
+    } else {
+      appointmentBook.addAll(appointments);
+    }
+    for (RecurringAppointment appointment : recurring) {
+      appointmentBook.addRecurringAppointment(appointment);
+    }
+    return appointmentBook;
+  }
+
+  /**
+   * Parses the contents of the text file without building an appointment book, passing
+   * the owner and then each appointment to a listener as soon as its line is read.  Only
+   * one line is held in memory at a time, so a file of any size can be counted, filtered
+   * or copied.  The lines are in the same format as for {@link #parse()}, and duplicate
+   * appointments are always passed on.
+   *
+   * If a line is malformed, the appointments on the lines before it have already been
+   * passed to the listener when the exception is thrown.
+   *
+   * The text is read into a reused buffer, and lines end at a line feed, a carriage
+   * return or both, as for {@link BufferedReader#readLine()}.  Each line is tokenized where
+   * it lies in the buffer, so a one-time appointment allocates only itself and its
+   * description.
+   *
+   * @param listener The listener to pass the owner and the appointments to
+   * @throws ParserException If the file is malformed or an I/O error occurs
+   */
+  public void parse(Listener listener) throws ParserException {
+    try (
+      Reader in = this.reader
+    ) {
 
-      String line;
-      while ((line = br.readLine()) != null) {
-        if(line.trim().isEmpty()){
+      char[] buffer = new char[BUFFER_SIZE];
+      CharBuffer text = CharBuffer.wrap(buffer);
+      boolean ownerRead = false;
+      boolean afterCarriageReturn = false;
+      int start = 0;
+      int scan = 0;
+      int end = 0;
+      while (true) {
+        if (scan == end) {
+          if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            scan -= start;
+            end -= start;
+            start = 0;
+          } else if (end == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            text = CharBuffer.wrap(buffer);
+          }
+          int read = in.read(buffer, end, buffer.length - end);
+          if (read < 0) {
+            break;
+          }
+          end += read;
           continue;
         }
-        String[] fields = line.split("\\|");
 
-        if (fields.length != 3) {
-          throw new ParserException("Invalid line format");
+        if (afterCarriageReturn) {
+          afterCarriageReturn = false;
+          if (buffer[scan] == '\n') {
+            start = ++scan;
+            continue;
+          }
+        }
+        while (scan < end && buffer[scan] != '\n' && buffer[scan] != '\r') {
+          scan++;
+        }
+        if (scan == end) {
+          continue;
         }
 
-        String description = fields[0].trim();
-        String beginStr = fields[1].trim();
-        String endStr = fields[2].trim();
+        if (ownerRead) {
+          parseLine(text, start, scan, listener);
+        } else {
+          listener.owner(new String(buffer, start, scan - start));
+          ownerRead = true;
+        }
+        afterCarriageReturn = buffer[scan] == '\r';
+        start = ++scan;
+      }
 
-        try {
-          LocalDateTime beginTime = LocalDateTime.parse(beginStr, formatter);
-          LocalDateTime endTime = LocalDateTime.parse(endStr, formatter);
-          appointmentBook.addAppointment(new Appointment(description, beginTime, endTime));
-        } catch (DateTimeParseException e) {
-          throw new ParserException("Invalid date/time format in line: " + line, e);
+      if (start < end) {
+        if (ownerRead) {
+          parseLine(text, start, end, listener);
+        } else {
+          listener.owner(new String(buffer, start, end - start));
+          ownerRead = true;
         }
       }
-      return appointmentBook;
+      if (!ownerRead) {
+        throw new ParserException("Missing owner");
+      }
 
     } catch (IOException e) {
       throw new ParserException("While parsing appointment book text", e);
     }
   }
+
+  /**
+   * Parses the appointment lines that lie between two indexes of an array-backed buffer.
+   * Lines end as they do for {@link #parse(Listener)}, and the text is expected to begin
+   * at the start of a line and end at the end of one.
+   *
+   * @param text     The buffer that holds the lines, whose array begins at index zero
+   * @param from     The index of the first character of the first line
+   * @param to       The index after the end of the last line
+   * @param listener The listener to pass the appointments to
+   * @throws ParserException If a line is malformed
+   */
+  static void parseLines(CharBuffer text, int from, int to, Listener listener) throws ParserException {
+    char[] chars = text.array();
+    int start = from;
+    while (start < to) {
+      int end = start;
+      while (end < to && chars[end] != '\n' && chars[end] != '\r') {
+        end++;
+      }
+      parseLine(text, start, end, listener);
+      if (end + 1 < to && chars[end] == '\r' && chars[end + 1] == '\n') {
+        end++;
+      }
+      start = end + 1;
+    }
+  }
+
+  /**
+   * Parses one appointment line that lies between two indexes of an array-backed buffer,
+   * without copying it.  Blank lines are skipped.  The fields are separated
+   * by '|' and trimmed like {@link String#trim()}.  As with {@link String#split(String)},
+   * empty fields at the end of the line are not counted.
+   *
+   * @param text     The buffer that holds the line, whose array begins at index zero
+   * @param from     The index of the first character of the line
+   * @param to       The index after the last character of the line
+   * @param listener The listener to pass the appointment to
+   * @throws ParserException If the line is malformed
+   */
+  static void parseLine(CharBuffer text, int from, int to, Listener listener) throws ParserException {
+    char[] chars = text.array();
+    int end = to;
+    while (end > from && chars[end - 1] == '|') {
+      end--;
+    }
+    if (trimStart(chars, from, to) == to) {
+      return;
+    }
+
+    int firstBar = indexOfBar(chars, from, end);
+    int secondBar = indexOfBar(chars, firstBar + 1, end);
+    int thirdBar = indexOfBar(chars, secondBar + 1, end);
+    if (firstBar == end || secondBar == end
+      || (thirdBar < end && indexOfBar(chars, thirdBar + 1, end) < end)) {
+      throw new ParserException("Invalid line format");
+    }
+
+    String description = DescriptionPool.global().canonicalize(trimmed(chars, from, firstBar));
+
+    try {
+      int beginStart = trimStart(chars, firstBar + 1, secondBar);
+      long beginMinute = DateTimeCodec.parseEpochMinute(text, beginStart, trimEnd(chars, beginStart, secondBar));
+      int endStart = trimStart(chars, secondBar + 1, thirdBar);
+      long endMinute = DateTimeCodec.parseEpochMinute(text, endStart, trimEnd(chars, endStart, thirdBar));
+      if (thirdBar < end) {
+        LocalDateTime beginTime = Appointment.fromEpochMinute(beginMinute);
+        LocalDateTime endTime = Appointment.fromEpochMinute(endMinute);
+        String rule = trimmed(chars, thirdBar + 1, end);
+        listener.recurringAppointment(RecurringAppointment.parse(description, beginTime, endTime, rule));
+      } else {
+        listener.appointment(new Appointment(description,
+          Appointment.toEpochMinute(beginMinute), Appointment.toEpochMinute(endMinute)));
+      }
+    } catch (DateTimeParseException e) {
+      throw new ParserException("Invalid date/time format in line: " + new String(chars, from, to - from), e);
+    } catch (IllegalArgumentException e) {
+      throw new ParserException("Invalid appointment in line: " + new String(chars, from, to - from), e);
+    }
+  }
+
+  private static int indexOfBar(char[] chars, int from, int to) {
+    int index = from;
+    while (index < to && chars[index] != '|') {
+      index++;
+    }
+    return index;
+  }
+
+  private static int trimStart(char[] chars, int from, int to) {
+    while (from < to && chars[from] <= ' ') {
+      from++;
+    }
+    return from;
+  }
+
+  private static int trimEnd(char[] chars, int from, int to) {
+    while (to > from && chars[to - 1] <= ' ') {
+      to--;
+    }
+    return to;
+  }
+
+  private static String trimmed(char[] chars, int from, int to) {
+    int start = trimStart(chars, from, to);
+    return new String(chars, start, trimEnd(chars, start, to) - start);
+  }
 }
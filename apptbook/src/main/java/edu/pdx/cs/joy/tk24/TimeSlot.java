@@ -0,0 +1,75 @@
+package edu.pdx.cs.joy.tk24;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A span of time, from a begin time (inclusive) to an end time (exclusive), such as a
+ * free slot between appointments.
+ */
+public class TimeSlot {
+
+  private final LocalDateTime beginTime;
+  private final LocalDateTime endTime;
+
+  /**
+   * Creates a new time slot.
+   *
+   * @param beginTime The beginning of the slot
+   * @param endTime   The end of the slot
+   * @throws IllegalArgumentException if the end time is before the begin time
+   */
+  public TimeSlot(LocalDateTime beginTime, LocalDateTime endTime) {
+    if (endTime.isBefore(beginTime)) {
+      throw new IllegalArgumentException("End time cannot be before begin time");
+    }
+    this.beginTime = beginTime;
+    this.endTime = endTime;
+  }
+
+  /**
+   * Returns the beginning of this slot.
+   *
+   * @return The begin time of this slot
+   */
+  public LocalDateTime getBeginTime() {
+    return this.beginTime;
+  }
+
+  /**
+   * Returns the end of this slot.
+   *
+   * @return The end time of this slot
+   */
+  public LocalDateTime getEndTime() {
+    return this.endTime;
+  }
+
+  /**
+   * Returns the length of this slot.
+   *
+   * @return The time between the beginning and the end of this slot
+   */
+  public Duration getDuration() {
+    return Duration.between(this.beginTime, this.endTime);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof TimeSlot)) return false;
+    TimeSlot other = (TimeSlot) o;
+    return this.beginTime.equals(other.beginTime) && this.endTime.equals(other.endTime);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.beginTime, this.endTime);
+  }
+
+  @Override
+  public String toString() {
+    return this.beginTime + " to " + this.endTime;
+  }
+}
@@ -0,0 +1,107 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link AppointmentBookDiff} class.
+ */
+public class AppointmentBookDiffTest {
+
+  private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+  /**
+   * Creates an appointment that begins and ends the given number of minutes after midnight.
+   */
+  private static Appointment appointment(String description, int beginMinutes, int endMinutes) {
+    return new Appointment(description, MIDNIGHT.plusMinutes(beginMinutes), MIDNIGHT.plusMinutes(endMinutes));
+  }
+
+  /**
+   * Tests that the diff of two books holds the appointments that are only in one of
+   * them, counting appointments that are in a book more than once.
+   */
+  @Test
+  void diffHoldsAppointmentsThatAreOnlyInOneBook() {
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    Appointment dinner = appointment("Dinner", 18 * 60, 19 * 60);
+    AppointmentBook before = new AppointmentBook("Tanya");
+    before.addAll(List.of(breakfast, lunch, lunch));
+    AppointmentBook after = new AppointmentBook("Tanya");
+    after.addAll(List.of(lunch, dinner, dinner));
+
+    AppointmentBookDiff diff = before.diff(after);
+    assertThat(diff.getRemoved(), contains(breakfast, lunch));
+    assertThat(diff.getAdded(), contains(dinner, dinner));
+    assertThat(before.diff(before).isEmpty(), equalTo(true));
+  }
+
+  /**
+   * Tests that applying the diff of two random books to the first one gives it the
+   * appointments of the second.
+   */
+  @Test
+  void applyingDiffMakesBooksEqual() {
+    Random random = new Random(410);
+    AppointmentBook before = new AppointmentBook("Tanya");
+    AppointmentBook after = new AppointmentBook("Tanya");
+    for (int i = 0; i < 2000; i++) {
+      int begin = random.nextInt(60 * 24 * 7) / 30 * 30;
+      Appointment appointment = appointment("Appointment " + random.nextInt(3), begin, begin + 30);
+      int books = random.nextInt(3);
+      if (books != 1) {
+        before.addAppointment(appointment);
+      }
+      if (books != 0) {
+        after.addAppointment(appointment);
+      }
+    }
+
+    AppointmentBookDiff diff = before.diff(after);
+    diff.applyTo(before);
+
+    assertThat(new ArrayList<>(before.getAppointments()), equalTo(new ArrayList<>(after.getAppointments())));
+    assertThat(before.diff(after).isEmpty(), equalTo(true));
+    assertThrows(IllegalArgumentException.class, () -> diff.applyTo(new AppointmentBook("Tanya")));
+  }
+
+  /**
+   * Tests that a diff can be written in its text form and read back.
+   *
+   * @throws IOException     If the diff cannot be written
+   * @throws ParserException If the diff cannot be read
+   */
+  @Test
+  void diffCanBeWrittenAndReadBack() throws IOException, ParserException {
+    AppointmentBook before = new AppointmentBook("Tanya");
+    before.addAppointment(appointment("Dentist", 15 * 60, 16 * 60));
+    AppointmentBook after = new AppointmentBook("Tanya");
+    after.addAppointment(appointment(" Lunch with  friends ", -60, 13 * 60));
+    AppointmentBookDiff diff = before.diff(after);
+
+    StringWriter text = new StringWriter();
+    diff.writeTo(text);
+    AppointmentBookDiff read = AppointmentBookDiff.readFrom(new StringReader(text.toString()));
+
+    assertThat(read.getAdded(), equalTo(diff.getAdded()));
+    assertThat(read.getRemoved(), equalTo(diff.getRemoved()));
+    assertThat(text.toString().split("\n").length, equalTo(2));
+    assertThrows(ParserException.class, () -> AppointmentBookDiff.readFrom(new StringReader("*1 2 Lunch\n")));
+    assertThrows(ParserException.class, () -> AppointmentBookDiff.readFrom(new StringReader("+2 1 Lunch\n")));
+    assertThrows(ParserException.class, () -> AppointmentBookDiff.readFrom(new StringReader("+1 Lunch\n")));
+  }
+}
@@ -0,0 +1,795 @@
+package edu.pdx.cs.joy.tk24;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link AppointmentBook} class.
+ */
+public class AppointmentBookTest {
+
+  private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+  /**
+   * Creates an appointment that begins and ends the given number of minutes after midnight.
+   */
+  private static Appointment appointment(String description, int beginMinutes, int endMinutes) {
+    return new Appointment(description, MIDNIGHT.plusMinutes(beginMinutes), MIDNIGHT.plusMinutes(endMinutes));
+  }
+
+  /**
+   * Tests that appointments added out of order are returned in sorted order.
+   */
+  @Test
+  void appointmentsAreReturnedInSortedOrder() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    Appointment longBreakfast = appointment("Breakfast", 8 * 60, 10 * 60);
+    Appointment brunch = appointment("Brunch", 8 * 60, 9 * 60);
+    book.addAppointment(lunch);
+    book.addAppointment(longBreakfast);
+    book.addAppointment(brunch);
+    book.addAppointment(breakfast);
+
+    assertThat(book.getAppointments(), contains(breakfast, brunch, longBreakfast, lunch));
+  }
+
+  /**
+   * Tests that the same unmodifiable view is returned each time and that it
+   * reflects appointments added later.
+   */
+  @Test
+  void getAppointmentsReturnsCachedUnmodifiableView() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Collection<Appointment> appointments = book.getAppointments();
+    assertThat(book.getAppointments(), sameInstance(appointments));
+
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    book.addAppointment(lunch);
+    assertThat(appointments, contains(lunch));
+    assertThrows(UnsupportedOperationException.class, () -> appointments.add(lunch));
+  }
+
+  /**
+   * Tests that a snapshot keeps the appointments that were in the book when it was
+   * taken, however many appointments and recurring appointments are added afterwards.
+   */
+  @Test
+  void snapshotIsNotAffectedByLaterAdditions() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    for (int i = 0; i < 500; i++) {
+      int begin = random.nextInt(60 * 24 * 7);
+      book.addAppointment(appointment("Appointment " + i, begin, begin + random.nextInt(120)));
+    }
+    List<Appointment> before = new ArrayList<>(book.getAppointments());
+    long busyBefore = book.getBusyMinutesOnDays(MIDNIGHT.toLocalDate(), MIDNIGHT.toLocalDate().plusDays(6));
+
+    AppointmentBook snapshot = book.snapshot();
+    List<Appointment> batch = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      int begin = random.nextInt(60 * 24 * 7);
+      batch.add(appointment("Batch " + i, begin, begin + random.nextInt(120)));
+    }
+    book.addAll(batch);
+    book.addAppointment(appointment("Lunch", 12 * 60, 13 * 60));
+    book.addRecurringAppointment(new RecurringAppointment("Standup", MIDNIGHT.plusHours(9),
+      MIDNIGHT.plusHours(9).plusMinutes(15), RecurringAppointment.Frequency.DAILY, 1, 7, List.of()));
+
+    assertThat(snapshot.getOwnerName(), equalTo("Tanya"));
+    assertThat(new ArrayList<>(snapshot.getAppointments()), equalTo(before));
+    assertThat(snapshot.getRecurringAppointments().size(), equalTo(0));
+    assertThat(snapshot.getBusyMinutesOnDays(MIDNIGHT.toLocalDate(), MIDNIGHT.toLocalDate().plusDays(6)),
+      equalTo(busyBefore));
+    assertThat(book.getAppointments().size(), equalTo(before.size() + batch.size() + 1 + 7));
+  }
+
+  /**
+   * Tests that appointments cannot be added to a snapshot, and that a snapshot of a
+   * snapshot is the snapshot itself.
+   */
+  @Test
+  void snapshotCannotBeModified() {
+    AppointmentBook snapshot = new AppointmentBook("Tanya").snapshot();
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.addAppointment(lunch));
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.addAll(List.of(lunch)));
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.addRecurringAppointment(
+      new RecurringAppointment("Standup", MIDNIGHT, MIDNIGHT.plusMinutes(15),
+        RecurringAppointment.Frequency.DAILY, 1, 5, List.of())));
+    assertThat(snapshot.snapshot(), sameInstance(snapshot));
+    assertThat(snapshot.getAppointments().size(), equalTo(0));
+  }
+
+  /**
+   * Tests that appointments may be added to a book while its appointments are being
+   * iterated over, and that the iterator returns the appointments that were in the book
+   * when it was created.
+   */
+  @Test
+  void appointmentsMayBeAddedWhileIterating() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    book.addAppointment(breakfast);
+    book.addAppointment(lunch);
+
+    List<Appointment> iterated = new ArrayList<>();
+    for (Appointment appointment : book.getAppointments()) {
+      iterated.add(appointment);
+      book.addAppointment(appointment("Snack", 10 * 60, 10 * 60 + 15));
+    }
+
+    assertThat(iterated, contains(breakfast, lunch));
+    assertThat(book.getAppointments().size(), equalTo(4));
+  }
+
+  /**
+   * Tests that a batch added with addAll is merged into the existing appointments
+   * in sorted order, both for small batches and for batches large enough to be
+   * sorted in parallel.
+   */
+  @Test
+  void addAllMergesBatchIntoSortedOrder() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    List<Appointment> expected = new ArrayList<>();
+    for (int size : new int[] {1, 3, 50, AppointmentIntervalTree.PARALLEL_SORT_THRESHOLD}) {
+      List<Appointment> batch = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        int begin = random.nextInt(60 * 24 * 30);
+        batch.add(appointment("Appointment " + i, begin, begin + random.nextInt(600)));
+      }
+      book.addAll(batch);
+      expected.addAll(batch);
+    }
+    expected.sort(null);
+
+    assertThat(new ArrayList<>(book.getAppointments()), equalTo(expected));
+    assertThat(book.findOverlapping(MIDNIGHT, MIDNIGHT.plusDays(60)), equalTo(expected));
+  }
+
+  /**
+   * Tests that importing the same appointments twice with addAllDistinct adds them only
+   * once, both for a batch that is small compared to the book and for one that is not.
+   */
+  @Test
+  void addAllDistinctDropsDuplicates() {
+    Random random = new Random(410);
+    List<Appointment> batch = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      int begin = random.nextInt(60 * 24 * 30);
+      batch.add(appointment("Appointment " + random.nextInt(10), begin, begin + 60));
+    }
+    batch.addAll(batch.subList(0, 100));
+    List<Appointment> expected = new ArrayList<>(new TreeSet<>(batch));
+
+    AppointmentBook book = new AppointmentBook("Tanya");
+    assertThat(book.addAllDistinct(batch), equalTo(expected.size()));
+    assertThat(book.addAllDistinct(batch), equalTo(0));
+    assertThat(book.addAllDistinct(batch.subList(0, 10)), equalTo(0));
+
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    assertThat(book.addAllDistinct(List.of(lunch, lunch, batch.get(0))), equalTo(1));
+    expected.add(lunch);
+    expected.sort(null);
+    assertThat(new ArrayList<>(book.getAppointments()), equalTo(expected));
+  }
+
+  /**
+   * Tests that merging books gives the same appointments as sorting all of them, with and
+   * without duplicates, for a few books merged with a heap and for many books merged in
+   * parallel, and that the merged books are left unchanged.
+   */
+  @Test
+  void mergeAgreesWithSortingEveryAppointment() {
+    Random random = new Random(410);
+    for (int count : new int[] {1, 3, AppointmentBook.PARALLEL_MERGE_THRESHOLD + 2}) {
+      AppointmentBook[] books = new AppointmentBook[count];
+      List<Appointment> all = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        books[i] = new AppointmentBook("Owner " + i);
+        for (int j = 0; j < ConflictReport.PARALLEL_THRESHOLD / count + 100; j++) {
+          int begin = random.nextInt(60 * 24 * 30) / 30 * 30;
+          Appointment appointment = appointment("Appointment " + random.nextInt(3), begin, begin + 30);
+          books[i].addAppointment(appointment);
+          all.add(appointment);
+        }
+      }
+      all.sort(null);
+
+      AppointmentBook merged = AppointmentBook.merge(books);
+      assertThat(merged.getOwnerName(), equalTo("Owner 0"));
+      assertThat(new ArrayList<>(merged.getAppointments()), equalTo(all));
+      assertThat(merged.get(0), equalTo(all.get(0)));
+
+      AppointmentBook distinct = AppointmentBook.merge(true, books);
+      assertThat(new ArrayList<>(distinct.getAppointments()), equalTo(new ArrayList<>(new TreeSet<>(all))));
+      assertThat(books[count - 1].getAppointments().size(), equalTo(ConflictReport.PARALLEL_THRESHOLD / count + 100));
+    }
+  }
+
+  /**
+   * Tests that a merged book has the recurring appointments of every book, and that
+   * appointments can be added to it.
+   */
+  @Test
+  void mergedBookKeepsRecurringAppointments() {
+    AppointmentBook work = new AppointmentBook("Tanya");
+    RecurringAppointment standup = new RecurringAppointment("Standup", MIDNIGHT.plusHours(9),
+      MIDNIGHT.plusHours(9).plusMinutes(15), RecurringAppointment.Frequency.DAILY, 1, 5, List.of());
+    work.addRecurringAppointment(standup);
+    AppointmentBook home = new AppointmentBook("Tanya at home");
+    Appointment dinner = appointment("Dinner", 18 * 60, 19 * 60);
+    home.addAppointment(dinner);
+
+    AppointmentBook merged = AppointmentBook.merge(work, home);
+    assertThat(merged.getRecurringAppointments(), contains(standup));
+    assertThat(merged.getAppointments().size(), equalTo(6));
+    assertThat(merged.getBusyMinutesOnDays(MIDNIGHT.toLocalDate(), MIDNIGHT.toLocalDate()), equalTo(75L));
+
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    assertThat(merged.add(lunch), equalTo(1L));
+    assertThat(merged.getAppointmentsOn(MIDNIGHT.toLocalDate()).size(), equalTo(3));
+    assertThrows(IllegalArgumentException.class, AppointmentBook::merge);
+  }
+
+  /**
+   * Tests that the begin-time range view contains exactly the appointments that a
+   * linear scan finds, including those that begin on either end of the range.
+   */
+  @Test
+  void beginningBetweenAgreesWithLinearScan() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    List<Appointment> all = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      int begin = random.nextInt(60 * 24 * 30) / 15 * 15;
+      Appointment appointment = appointment("Appointment " + i, begin, begin + random.nextInt(600));
+      book.addAppointment(appointment);
+      all.add(appointment);
+    }
+    all.sort(null);
+
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime begin = MIDNIGHT.plusMinutes(random.nextInt(60 * 24 * 30) / 15 * 15);
+      LocalDateTime end = begin.plusMinutes(random.nextInt(3000) / 15 * 15);
+
+      List<Appointment> expected = new ArrayList<>();
+      for (Appointment appointment : all) {
+        if (!appointment.getBeginTime().isBefore(begin) && !appointment.getBeginTime().isAfter(end)) {
+          expected.add(appointment);
+        }
+      }
+
+      Collection<Appointment> range = book.beginningBetween(begin, end);
+      assertThat(range.size(), equalTo(expected.size()));
+      assertThat(new ArrayList<>(range), equalTo(expected));
+    }
+
+    assertThat(book.beginningBetween(MIDNIGHT.plusDays(1), MIDNIGHT).size(), equalTo(0));
+  }
+
+  /**
+   * Tests that the upcoming appointments are the first ones in sorted order that begin
+   * at or after the given time, including occurrences of recurring appointments.
+   */
+  @Test
+  void upcomingAgreesWithLinearScan() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    book.addRecurringAppointment(new RecurringAppointment("Standup", MIDNIGHT.plusHours(9),
+      MIDNIGHT.plusHours(9).plusMinutes(15), RecurringAppointment.Frequency.DAILY, 1, 20, List.of()));
+    for (int i = 0; i < 1000; i++) {
+      int begin = random.nextInt(60 * 24 * 30) / 15 * 15;
+      book.addAppointment(appointment("Appointment " + i, begin, begin + random.nextInt(600)));
+    }
+    List<Appointment> all = new ArrayList<>(book.getAppointments());
+
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime from = MIDNIGHT.plusMinutes(random.nextInt(60 * 24 * 31) / 15 * 15).plusSeconds(i % 2 * 30);
+      int n = random.nextInt(50);
+
+      List<Appointment> expected = new ArrayList<>();
+      for (Appointment appointment : all) {
+        if (expected.size() < n && !appointment.getBeginTime().isBefore(from)) {
+          expected.add(appointment);
+        }
+      }
+
+      assertThat(book.upcoming(from, n), equalTo(expected));
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> book.upcoming(MIDNIGHT, -1));
+  }
+
+  /**
+   * Tests that a book can be serialized and read back with its appointments in order
+   * and with their ids.
+   */
+  @Test
+  void bookCanBeSerializedAndDeserialized() throws IOException, ClassNotFoundException {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    long lunchId = book.add(lunch);
+    long breakfastId = book.add(breakfast);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(book);
+    }
+    AppointmentBook read;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      read = (AppointmentBook) in.readObject();
+    }
+
+    assertThat(read.getOwnerName(), equalTo("Tanya"));
+    assertThat(read.getAppointments().size(), equalTo(2));
+    assertThat(read.findOverlapping(MIDNIGHT, MIDNIGHT.plusDays(1)).get(0).getDescription(), equalTo("Breakfast"));
+    assertThat(read.get(lunchId), equalTo(lunch));
+    assertThat(read.get(breakfastId), equalTo(breakfast));
+    assertThat(read.add(lunch), equalTo(breakfastId + 1));
+  }
+
+  /**
+   * Tests that appointments are given increasing ids, one at a time and in batches,
+   * and can be found by them.
+   */
+  @Test
+  void appointmentsAreGivenIncreasingIds() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    long lunchId = book.add(lunch);
+    long breakfastId = book.add(breakfast);
+    book.addAll(List.of(lunch, breakfast));
+
+    assertThat(breakfastId, equalTo(lunchId + 1));
+    assertThat(book.get(lunchId), sameInstance(lunch));
+    assertThat(book.get(breakfastId), sameInstance(breakfast));
+    assertThat(book.get(breakfastId + 1), sameInstance(lunch));
+    assertThat(book.get(breakfastId + 2), sameInstance(breakfast));
+    assertThat(book.get(breakfastId + 3), equalTo(null));
+    assertThat(book.add(lunch), equalTo(breakfastId + 3));
+  }
+
+  /**
+   * Tests that after random additions, removals and reschedulings, every view of the
+   * book agrees with a book that is built from scratch with the appointments that remain.
+   */
+  @Test
+  void removeAndRescheduleKeepEveryIndexUpToDate() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    RecurringAppointment standup = new RecurringAppointment("Standup", MIDNIGHT.plusHours(9),
+      MIDNIGHT.plusHours(10), RecurringAppointment.Frequency.DAILY, 1, 14, List.of());
+    book.addRecurringAppointment(standup);
+    Map<Long, Appointment> expected = new TreeMap<>();
+    long nextId = 0;
+
+    for (int i = 0; i < 1000; i++) {
+      int begin = random.nextInt(60 * 24 * 14);
+      Appointment appointment = appointment("Appointment " + random.nextInt(5), begin, begin + random.nextInt(60));
+      int operation = random.nextInt(10);
+      if (operation < 5 || expected.isEmpty()) {
+        assertThat(book.add(appointment), equalTo(nextId));
+        expected.put(nextId++, appointment);
+      } else if (operation == 5) {
+        Appointment batched = appointment("Batch", begin, begin + 30);
+        book.addAll(List.of(appointment, batched));
+        expected.put(nextId++, appointment);
+        expected.put(nextId++, batched);
+      } else {
+        Long[] ids = expected.keySet().toArray(new Long[0]);
+        long id = ids[random.nextInt(ids.length)];
+        if (operation < 8) {
+          assertThat(book.remove(id), equalTo(expected.remove(id)));
+          assertThat(book.remove(id), equalTo(null));
+        } else {
+          Appointment rescheduled = book.reschedule(id, appointment.getBeginTime(), appointment.getEndTime());
+          assertThat(rescheduled.getDescription(), equalTo(expected.get(id).getDescription()));
+          expected.put(id, rescheduled);
+        }
+      }
+    }
+
+    AppointmentBook rebuilt = new AppointmentBook("Tanya");
+    rebuilt.addRecurringAppointment(standup);
+    for (Appointment appointment : expected.values()) {
+      rebuilt.addAppointment(appointment);
+    }
+    for (Map.Entry<Long, Appointment> entry : expected.entrySet()) {
+      assertThat(book.get(entry.getKey()), equalTo(entry.getValue()));
+    }
+    assertThat(new ArrayList<>(book.getAppointments()), equalTo(new ArrayList<>(rebuilt.getAppointments())));
+    for (int day = 0; day < 15; day++) {
+      LocalDate date = MIDNIGHT.toLocalDate().plusDays(day);
+      assertThat(book.getAppointmentsOn(date), equalTo(rebuilt.getAppointmentsOn(date)));
+      assertThat(book.getBusyMinutesOnDays(date, date), equalTo(rebuilt.getBusyMinutesOnDays(date, date)));
+    }
+    assertThat(book.reschedule(-1, MIDNIGHT, MIDNIGHT), equalTo(null));
+  }
+
+  /**
+   * Tests that only the appointments that overlap a time span are returned, and that
+   * appointments that merely touch the span are not.
+   */
+  @Test
+  void findOverlappingReturnsOnlyOverlappingAppointments() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    Appointment meeting = appointment("Meeting", 13 * 60, 15 * 60);
+    Appointment lunch = appointment("Lunch", 12 * 60, 14 * 60);
+    Appointment review = appointment("Review", 16 * 60, 17 * 60);
+    book.addAppointment(breakfast);
+    book.addAppointment(meeting);
+    book.addAppointment(lunch);
+    book.addAppointment(review);
+
+    List<Appointment> overlapping = book.findOverlapping(MIDNIGHT.plusHours(14), MIDNIGHT.plusHours(16));
+    assertThat(overlapping, contains(meeting));
+
+    overlapping = book.findOverlapping(MIDNIGHT.plusHours(9), MIDNIGHT.plusHours(13).plusMinutes(30));
+    assertThat(overlapping, contains(lunch, meeting));
+  }
+
+  /**
+   * Tests that overlap queries agree with a linear scan over many random appointments.
+   */
+  @Test
+  void findOverlappingAgreesWithLinearScan() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    List<Appointment> all = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      int begin = random.nextInt(60 * 24 * 30);
+      Appointment appointment = appointment("Appointment " + i, begin, begin + random.nextInt(600));
+      book.addAppointment(appointment);
+      all.add(appointment);
+    }
+    all.sort(null);
+
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime begin = MIDNIGHT.plusMinutes(random.nextInt(60 * 24 * 30));
+      LocalDateTime end = begin.plusMinutes(random.nextInt(300));
+
+      List<Appointment> expected = new ArrayList<>();
+      for (Appointment appointment : all) {
+        if (appointment.getBeginTime().isBefore(end) && appointment.getEndTime().isAfter(begin)) {
+          expected.add(appointment);
+        }
+      }
+
+      assertThat(book.findOverlapping(begin, end), equalTo(expected));
+    }
+  }
+
+  /**
+   * Tests that overlapping appointments are grouped into clusters, and that appointments
+   * that merely touch or overlap nothing are left out.
+   */
+  @Test
+  void findConflictsGroupsOverlappingAppointments() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    Appointment standup = appointment("Standup", 9 * 60, 9 * 60 + 15);
+    Appointment lunch = appointment("Lunch", 12 * 60, 14 * 60);
+    Appointment meeting = appointment("Meeting", 13 * 60, 15 * 60);
+    Appointment review = appointment("Review", 14 * 60 + 30, 16 * 60);
+    Appointment dinner = appointment("Dinner", 18 * 60, 19 * 60);
+    book.addAll(List.of(dinner, review, meeting, lunch, standup, breakfast));
+
+    ConflictReport report = book.findConflicts();
+    assertThat(report.getClusters().size(), equalTo(1));
+    assertThat(report.getClusters().get(0), contains(lunch, meeting, review));
+    assertThat(report.getConflictingAppointmentCount(), equalTo(3));
+    assertThat(new AppointmentBook("Tanya").findConflicts().hasConflicts(), equalTo(false));
+  }
+
+  /**
+   * Tests that the clusters found by the sweep, both sequentially and in parallel, are the
+   * connected groups of appointments that overlap each other.
+   */
+  @Test
+  void findConflictsAgreesWithOverlapQueries() {
+    Random random = new Random(410);
+    for (int size : new int[] {500, ConflictReport.PARALLEL_THRESHOLD * 3}) {
+      AppointmentBook book = new AppointmentBook("Tanya");
+      List<Appointment> batch = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        int begin = random.nextInt(size * 20) / 15 * 15;
+        batch.add(appointment("Appointment " + i, begin, begin + random.nextInt(4) * 15));
+      }
+      book.addAll(batch);
+
+      List<Appointment> sorted = new ArrayList<>(book.getAppointments());
+      Map<Appointment, Integer> indexes = new IdentityHashMap<>();
+      for (int i = 0; i < sorted.size(); i++) {
+        indexes.put(sorted.get(i), i);
+      }
+      int[] groups = new int[sorted.size()];
+      for (int i = 0; i < groups.length; i++) {
+        groups[i] = i;
+      }
+      for (Appointment appointment : sorted) {
+        for (Appointment other : book.findOverlapping(appointment.getBeginTime(), appointment.getEndTime())) {
+          groups[find(groups, indexes.get(other))] = find(groups, indexes.get(appointment));
+        }
+      }
+      Map<Integer, List<Appointment>> expected = new TreeMap<>();
+      for (int i = 0; i < groups.length; i++) {
+        expected.computeIfAbsent(find(groups, i), group -> new ArrayList<>()).add(sorted.get(i));
+      }
+      expected.values().removeIf(group -> group.size() < 2);
+      List<List<Appointment>> expectedClusters = new ArrayList<>(expected.values());
+      expectedClusters.sort(Comparator.comparing(group -> indexes.get(group.get(0))));
+
+      assertThat(book.findConflicts().getClusters(), equalTo(expectedClusters));
+    }
+  }
+
+  /**
+   * Tests that free slots are the gaps between merged busy periods that are long enough,
+   * clipped to the window.
+   */
+  @Test
+  void findFreeSlotsReturnsGapsBetweenBusyPeriods() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    book.addAll(List.of(
+      appointment("Breakfast", 7 * 60, 9 * 60),
+      appointment("Standup", 9 * 60 + 30, 9 * 60 + 45),
+      appointment("Lunch", 12 * 60, 13 * 60),
+      appointment("Meeting", 12 * 60 + 30, 14 * 60),
+      appointment("Reminder", 15 * 60, 15 * 60),
+      appointment("Review", 16 * 60 + 45, 18 * 60)));
+
+    List<TimeSlot> slots = book.findFreeSlots(MIDNIGHT.plusHours(8), MIDNIGHT.plusHours(17), Duration.ofMinutes(30));
+
+    assertThat(slots, contains(
+      new TimeSlot(MIDNIGHT.plusHours(9), MIDNIGHT.plusMinutes(9 * 60 + 30)),
+      new TimeSlot(MIDNIGHT.plusMinutes(9 * 60 + 45), MIDNIGHT.plusHours(12)),
+      new TimeSlot(MIDNIGHT.plusHours(14), MIDNIGHT.plusMinutes(16 * 60 + 45))));
+    assertThat(book.findFreeSlots(MIDNIGHT.plusHours(12), MIDNIGHT.plusHours(14), Duration.ZERO).size(), equalTo(0));
+    assertThrows(IllegalArgumentException.class,
+      () -> book.findFreeSlots(MIDNIGHT.plusHours(1), MIDNIGHT, Duration.ZERO));
+  }
+
+  /**
+   * Tests that free slots agree with a minute-by-minute scan of a random book.
+   */
+  @Test
+  void findFreeSlotsAgreesWithMinuteByMinuteScan() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    boolean[] busy = new boolean[60 * 24 * 7];
+    for (int i = 0; i < 300; i++) {
+      int begin = random.nextInt(busy.length - 300);
+      int end = begin + random.nextInt(120);
+      book.addAppointment(appointment("Appointment " + i, begin, end));
+      Arrays.fill(busy, begin, end, true);
+    }
+
+    for (int i = 0; i < 100; i++) {
+      int windowStart = random.nextInt(busy.length / 2);
+      int windowEnd = windowStart + random.nextInt(busy.length / 2);
+      int minLength = random.nextInt(60);
+
+      List<TimeSlot> expected = new ArrayList<>();
+      int free = -1;
+      for (int minute = windowStart; minute <= windowEnd; minute++) {
+        boolean isFree = minute < windowEnd && !busy[minute];
+        if (isFree && free < 0) {
+          free = minute;
+        } else if (!isFree && free >= 0) {
+          if (minute - free >= minLength) {
+            expected.add(new TimeSlot(MIDNIGHT.plusMinutes(free), MIDNIGHT.plusMinutes(minute)));
+          }
+          free = -1;
+        }
+      }
+
+      assertThat(book.findFreeSlots(MIDNIGHT.plusMinutes(windowStart), MIDNIGHT.plusMinutes(windowEnd),
+        Duration.ofMinutes(minLength)), equalTo(expected));
+    }
+  }
+
+  /**
+   * Tests that an appointment spanning several days is on each of them, that one ending
+   * at midnight is not on the next day, and that a week view returns it once.
+   */
+  @Test
+  void getAppointmentsOnIncludesEveryDayAnAppointmentTouches() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment conference = appointment("Conference", 9 * 60, 3 * 24 * 60 + 17 * 60);
+    Appointment lateShow = appointment("Late show", 22 * 60, 24 * 60);
+    Appointment reminder = appointment("Reminder", 24 * 60, 24 * 60);
+    Appointment lunch = appointment("Lunch", 24 * 60 + 12 * 60, 24 * 60 + 13 * 60);
+    book.addAll(List.of(lunch, reminder, conference));
+    book.addAppointment(lateShow);
+
+    LocalDate first = MIDNIGHT.toLocalDate();
+    assertThat(book.getAppointmentsOn(first), contains(conference, lateShow));
+    assertThat(book.getAppointmentsOn(first.plusDays(1)), contains(conference, reminder, lunch));
+    assertThat(book.getAppointmentsOn(first.plusDays(3)), contains(conference));
+    assertThat(book.getAppointmentsOn(first.plusDays(4)).size(), equalTo(0));
+    assertThat(book.getAppointmentsOnDays(first, first.plusDays(6)), contains(conference, lateShow, reminder, lunch));
+  }
+
+  /**
+   * Tests that the appointments returned for a day are not changed by appointments that
+   * are added to the book later, even while they are being iterated.
+   */
+  @Test
+  void getAppointmentsOnIsNotChangedByLaterAdditions() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    Appointment breakfast = appointment("Breakfast", 8 * 60, 9 * 60);
+    Appointment lunch = appointment("Lunch", 12 * 60, 13 * 60);
+    book.addAppointment(breakfast);
+    book.addAppointment(lunch);
+
+    List<Appointment> day = book.getAppointmentsOn(MIDNIGHT.toLocalDate());
+    for (Appointment appointment : day) {
+      book.addAppointment(appointment("After " + appointment.getDescription(), 14 * 60, 15 * 60));
+    }
+
+    assertThat(day, contains(breakfast, lunch));
+    assertThat(book.getAppointmentsOn(MIDNIGHT.toLocalDate()).size(), equalTo(4));
+  }
+
+  /**
+   * Tests that day views agree with overlap queries over each day, both for a book that is
+   * built one appointment at a time and for one that was deserialized.
+   */
+  @Test
+  void getAppointmentsOnAgreesWithOverlapQueries() throws IOException, ClassNotFoundException {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    for (int i = 0; i < 1000; i++) {
+      int begin = random.nextInt(60 * 24 * 30);
+      book.addAppointment(appointment("Appointment " + i, begin, begin + 1 + random.nextInt(60 * 24 * 3)));
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(book);
+    }
+    AppointmentBook read;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      read = (AppointmentBook) in.readObject();
+    }
+
+    for (int day = -1; day < 35; day++) {
+      LocalDate date = MIDNIGHT.toLocalDate().plusDays(day);
+      List<Appointment> expected = book.findOverlapping(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+      assertThat(book.getAppointmentsOn(date), equalTo(expected));
+      assertThat(read.getAppointmentsOn(date).size(), equalTo(expected.size()));
+    }
+    LocalDate week = MIDNIGHT.toLocalDate().plusDays(7);
+    assertThat(book.getAppointmentsOnDays(week, week.plusDays(6)),
+      equalTo(book.findOverlapping(week.atStartOfDay(), week.plusDays(7).atStartOfDay())));
+  }
+
+  /**
+   * Tests that booked minutes count overlapping appointments once and agree with a
+   * minute-by-minute count, including recurring appointments and a deserialized book.
+   */
+  @Test
+  void getBusyMinutesAgreesWithMinuteByMinuteCount() throws IOException, ClassNotFoundException {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    boolean[] busy = new boolean[60 * 24 * 60];
+    for (int i = 0; i < 2000; i++) {
+      int begin = random.nextInt(busy.length - 1000);
+      int end = begin + random.nextInt(300);
+      Appointment appointment = appointment("Appointment " + i, begin, end);
+      if (i % 2 == 0) {
+        book.addAppointment(appointment);
+      } else {
+        book.addAll(List.of(appointment));
+      }
+      Arrays.fill(busy, begin, end, true);
+    }
+    RecurringAppointment standup = new RecurringAppointment("Standup", MIDNIGHT.plusHours(9),
+      MIDNIGHT.plusHours(9).plusMinutes(15), RecurringAppointment.Frequency.DAILY, 1, 30, List.of());
+    book.addRecurringAppointment(standup);
+    for (int day = 0; day < 30; day++) {
+      Arrays.fill(busy, day * 24 * 60 + 9 * 60, day * 24 * 60 + 9 * 60 + 15, true);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(book);
+    }
+    AppointmentBook read;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      read = (AppointmentBook) in.readObject();
+    }
+
+    for (int i = 0; i < 300; i++) {
+      int from = random.nextInt(busy.length);
+      int to = from + random.nextInt(busy.length - from);
+      long expected = 0;
+      for (int minute = from; minute < to; minute++) {
+        expected += busy[minute] ? 1 : 0;
+      }
+
+      assertThat(book.getBusyMinutes(MIDNIGHT.plusMinutes(from), MIDNIGHT.plusMinutes(to)), equalTo(expected));
+      assertThat(read.getBusyMinutes(MIDNIGHT.plusMinutes(from), MIDNIGHT.plusMinutes(to)), equalTo(expected));
+    }
+
+    long firstWeek = 0;
+    for (int minute = 0; minute < 7 * 24 * 60; minute++) {
+      firstWeek += busy[minute] ? 1 : 0;
+    }
+    LocalDate first = MIDNIGHT.toLocalDate();
+    assertThat(book.getBusyMinutesOnDays(first, first.plusDays(6)), equalTo(firstWeek));
+  }
+
+  /**
+   * Tests that the busy time of recurring appointments that repeat for thousands of years
+   * is counted once where they overlap each other and one-time appointments, also after
+   * a one-time appointment that shared their time is removed.
+   */
+  @Test
+  void getBusyMinutesCountsLongRecurringAppointmentsInTheQueriedSpan() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    book.getBusyMinutesOnDays(MIDNIGHT.toLocalDate(), MIDNIGHT.toLocalDate());
+    book.addRecurringAppointment(new RecurringAppointment("Standup", MIDNIGHT.plusHours(9),
+      MIDNIGHT.plusHours(9).plusMinutes(30), RecurringAppointment.Frequency.DAILY, 1,
+      LocalDate.of(5000, 12, 31), List.of()));
+    book.addRecurringAppointment(new RecurringAppointment("Planning", MIDNIGHT.plusHours(9).plusMinutes(15),
+      MIDNIGHT.plusHours(10), RecurringAppointment.Frequency.WEEKLY, 1,
+      LocalDate.of(5000, 12, 31), List.of()));
+    long lunch = book.add(appointment("Lunch", 9 * 60 + 20, 11 * 60));
+    book.addAppointment(appointment("Review", 14 * 60, 15 * 60));
+
+    LocalDate first = MIDNIGHT.toLocalDate();
+    assertThat(book.getBusyMinutesOnDays(first, first), equalTo(120L + 60L));
+    assertThat(book.getBusyMinutesOnDays(first, first.plusDays(6)), equalTo(180L + 6 * 30L));
+    assertThat(book.getBusyMinutes(MIDNIGHT.plusHours(9).plusMinutes(10), MIDNIGHT.plusHours(14).plusMinutes(30)),
+      equalTo(110L + 30L));
+
+    book.remove(lunch);
+    assertThat(book.getBusyMinutesOnDays(first, first), equalTo(60L + 60L));
+    LocalDate last = LocalDate.of(5000, 12, 25);
+    assertThat(book.getBusyMinutesOnDays(last, last.plusDays(6)), equalTo(7 * 30L + 30L));
+  }
+
+  /**
+   * Finds the representative of a group of appointments that overlap.
+   */
+  private static int find(int[] groups, int i) {
+    while (groups[i] != i) {
+      groups[i] = groups[groups[i]];
+      i = groups[i];
+    }
+    return i;
+  }
+}
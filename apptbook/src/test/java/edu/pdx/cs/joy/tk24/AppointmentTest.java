@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 import java.time.format.DateTimeFormatter;
 import java.time.LocalDateTime;
 
@@ -59,4 +61,73 @@ public class AppointmentTest {
     Appointment appointment = new Appointment("Doctor appointment", begin, end);
     assertThat(appointment.getEndTime(), is(end));
   }
+
+  /**
+   * Tests that times are kept to the minute and survive the round trip through
+   * the compact epoch-minute representation, including times before the epoch.
+   */
+  @Test
+  void timesAreStoredToTheMinute() {
+    LocalDateTime begin = LocalDateTime.of(1969, 12, 31, 23, 59, 42);
+    LocalDateTime end = LocalDateTime.of(2025, 7, 18, 15, 30);
+    Appointment appointment = new Appointment("Long appointment", begin, end);
+    assertThat(appointment.getBeginTime(), is(LocalDateTime.of(1969, 12, 31, 23, 59)));
+    assertThat(appointment.getEndTime(), is(end));
+    assertThat(appointment.getEndTimeString(), is("07/18/2025 3:30 PM"));
+  }
+
+  /**
+   * Tests that an appointment whose times cannot be stored as epoch minutes is rejected.
+   */
+  @Test
+  void timesOutOfRangeAreRejected() {
+    LocalDateTime begin = LocalDateTime.of(9999, 1, 1, 0, 0);
+    assertThrows(IllegalArgumentException.class, () -> new Appointment("Too late", begin, begin));
+  }
+
+  /**
+   * Tests that the packed sort key orders appointments by begin time and then end time,
+   * including times before the epoch and at the ends of the supported range.
+   */
+  @Test
+  void sortKeyOrdersByBeginThenEnd() {
+    int[] minutes = {Integer.MIN_VALUE, -60, -1, 0, 1, 60, Integer.MAX_VALUE};
+    for (int begin1 : minutes) {
+      for (int end1 : minutes) {
+        for (int begin2 : minutes) {
+          for (int end2 : minutes) {
+            int expected = begin1 != begin2 ? Integer.compare(begin1, begin2) : Integer.compare(end1, end2);
+            int actual = Long.compare(Appointment.sortKey(begin1, end1), Appointment.sortKey(begin2, end2));
+            assertThat(Integer.signum(actual), equalTo(Integer.signum(expected)));
+          }
+        }
+      }
+    }
+
+    Appointment appointment = new Appointment("Old", -90, Integer.MAX_VALUE);
+    assertThat(appointment.getBeginMinute(), equalTo(-90));
+    assertThat(appointment.getEndMinute(), equalTo(Integer.MAX_VALUE));
+  }
+
+  /**
+   * Tests that appointments with the same times and description are equal and have the
+   * same hash code, and that equality agrees with {@code compareTo}.
+   */
+  @Test
+  void equalsIsConsistentWithCompareTo() {
+    Appointment lunch = new Appointment("Lunch", 100, 160);
+    Appointment sameLunch = new Appointment("Lunch", Appointment.toEpochMinute(lunch.getBeginTime()),
+      Appointment.toEpochMinute(lunch.getEndTime()));
+    Appointment[] others = {new Appointment("Lunch", 100, 161), new Appointment("Lunch", 99, 160),
+      new Appointment("Brunch", 100, 160)};
+
+    assertThat(sameLunch, equalTo(lunch));
+    assertThat(sameLunch.hashCode(), equalTo(lunch.hashCode()));
+    assertThat(sameLunch.compareTo(lunch), equalTo(0));
+    for (Appointment other : others) {
+      assertThat(other, not(equalTo(lunch)));
+      assertThat(other.compareTo(lunch), not(equalTo(0)));
+    }
+    assertThat(lunch.equals(null), equalTo(false));
+  }
 }
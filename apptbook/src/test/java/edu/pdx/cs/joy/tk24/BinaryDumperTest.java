@@ -0,0 +1,145 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link BinaryDumper}, {@link BinaryParser} and {@link BinaryConverter} classes.
+ */
+public class BinaryDumperTest {
+
+  private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+  /**
+   * Creates a book of random appointments on the quarter hour over a year, with a few
+   * dozen descriptions, like a typical appointment book.
+   */
+  private static AppointmentBook randomBook(int size) {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    for (int i = 0; i < size; i++) {
+      LocalDateTime begin = MIDNIGHT.plusMinutes(random.nextInt(60 * 24 * 365) / 15 * 15);
+      book.addAppointment(new Appointment("Appointment " + random.nextInt(50), begin,
+        begin.plusMinutes(random.nextInt(8) * 15)));
+    }
+    return book;
+  }
+
+  private static byte[] dump(AppointmentBook book) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new BinaryDumper(bytes).dump(book);
+    return bytes.toByteArray();
+  }
+
+  private static AppointmentBook parse(byte[] bytes) throws ParserException {
+    return new BinaryParser(new ByteArrayInputStream(bytes)).parse();
+  }
+
+  private static String text(AppointmentBook book) {
+    StringWriter text = new StringWriter();
+    new TextDumper(text).dump(book);
+    return text.toString();
+  }
+
+  /**
+   * Tests that a book with appointments before and after the epoch, descriptions with
+   * characters that are several bytes long, and recurring appointments, can be written
+   * and read back.
+   *
+   * @throws IOException     If the book cannot be written
+   * @throws ParserException If the book cannot be read
+   */
+  @Test
+  void bookCanBeWrittenAndReadBack() throws IOException, ParserException {
+    AppointmentBook book = new AppointmentBook("T\u00e1nya");
+    book.addAll(Arrays.asList(
+      new Appointment("Caf\u00e9 \u4f1a\u8bae", MIDNIGHT, MIDNIGHT.plusMinutes(30)),
+      new Appointment("Moon landing", LocalDateTime.of(1969, 7, 20, 20, 17), LocalDateTime.of(1969, 7, 21, 2, 56)),
+      new Appointment("", MIDNIGHT, MIDNIGHT),
+      new Appointment("Caf\u00e9 \u4f1a\u8bae", MIDNIGHT, MIDNIGHT.plusMinutes(30))));
+    book.addRecurringAppointment(RecurringAppointment.parse("Standup", MIDNIGHT.plusHours(9),
+      MIDNIGHT.plusHours(9).plusMinutes(15), "FREQ=WEEKLY;COUNT=4;EXDATE=08/08/2025"));
+
+    AppointmentBook read = parse(dump(book));
+
+    assertThat(read.getOwnerName(), equalTo(book.getOwnerName()));
+    assertThat(new ArrayList<>(read.getAppointments()), equalTo(new ArrayList<>(book.getAppointments())));
+    assertThat(text(read), equalTo(text(book)));
+  }
+
+  /**
+   * Tests that a typical book takes at most a fifth of the bytes of its text form.
+   *
+   * @throws IOException     If the book cannot be written
+   * @throws ParserException If the book cannot be read
+   */
+  @Test
+  void binaryFormIsAtLeastFiveTimesSmallerThanText() throws IOException, ParserException {
+    AppointmentBook book = randomBook(10_000);
+    byte[] bytes = dump(book);
+
+    assertThat(bytes.length * 5, lessThan(text(book).length()));
+    assertThat(text(parse(bytes)), equalTo(text(book)));
+  }
+
+  /**
+   * Tests that text that is not a binary appointment book, is of another version, or is
+   * cut short anywhere, is rejected with a {@link ParserException}.
+   *
+   * @throws IOException If the book cannot be written
+   */
+  @Test
+  void malformedBinaryIsRejected() throws IOException {
+    byte[] bytes = dump(randomBook(20));
+
+    assertThrows(ParserException.class, () -> parse("Tanya\n".getBytes()));
+    byte[] otherVersion = bytes.clone();
+    otherVersion[4] = (byte) (BinaryDumper.VERSION + 1);
+    assertThrows(ParserException.class, () -> parse(otherVersion));
+    for (int length = 0; length < bytes.length; length++) {
+      byte[] truncated = Arrays.copyOf(bytes, length);
+      assertThrows(ParserException.class, () -> parse(truncated));
+    }
+  }
+
+  /**
+   * Tests that converting a text file to a binary file and back gives the same text.
+   *
+   * @param directory A directory for the files
+   * @throws IOException     If a file cannot be written
+   * @throws ParserException If a file cannot be read
+   */
+  @Test
+  void converterRoundTripsTextFiles(@TempDir File directory) throws IOException, ParserException {
+    String text = text(randomBook(500));
+    File textFile = new File(directory, "apptbook.txt");
+    File binaryFile = new File(directory, "apptbook.bin");
+    File convertedFile = new File(directory, "converted.txt");
+    Files.writeString(textFile.toPath(), text);
+
+    BinaryConverter.textToBinary(textFile, binaryFile);
+    BinaryConverter.binaryToText(binaryFile, convertedFile);
+
+    assertThat(Files.readString(convertedFile.toPath()), equalTo(text));
+    List<String> lines = Files.readAllLines(convertedFile.toPath());
+    assertThat(lines.size(), equalTo(501));
+  }
+}
@@ -0,0 +1,165 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link ColumnarAppointmentBook} class.
+ */
+public class ColumnarAppointmentBookTest {
+
+  private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+  /**
+   * Adds the same random appointments to a columnar book and to a regular book.
+   */
+  private static ColumnarAppointmentBook fillBooks(AppointmentBook book, int count) {
+    Random random = new Random(410);
+    ColumnarAppointmentBook columnar = new ColumnarAppointmentBook(book.getOwnerName());
+    for (int i = 0; i < count; i++) {
+      int begin = random.nextInt(60 * 24 * 30) / 15 * 15;
+      Appointment appointment = new Appointment("Appointment " + random.nextInt(20),
+        MIDNIGHT.plusMinutes(begin), MIDNIGHT.plusMinutes(begin + random.nextInt(600)));
+      columnar.addAppointment(appointment);
+      book.addAppointment(appointment);
+    }
+    return columnar;
+  }
+
+  /**
+   * Returns the descriptions and times of appointments, which identify them by value.
+   */
+  private static List<String> asText(Iterable<Appointment> appointments) {
+    List<String> text = new ArrayList<>();
+    for (Appointment appointment : appointments) {
+      text.add(appointment.toString());
+    }
+    return text;
+  }
+
+  /**
+   * Tests that appointments added out of order are read back in the same order as
+   * from an {@link AppointmentBook}.
+   */
+  @Test
+  void appointmentsAreReturnedInSortedOrder() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    ColumnarAppointmentBook columnar = fillBooks(book, 5000);
+
+    assertThat(columnar.size(), equalTo(5000));
+    assertThat(asText(columnar.getAppointments()), equalTo(asText(book.getAppointments())));
+  }
+
+  /**
+   * Tests that begin-time range queries and duration sums agree with an {@link AppointmentBook}.
+   */
+  @Test
+  void beginningBetweenAgreesWithAppointmentBook() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    ColumnarAppointmentBook columnar = fillBooks(book, 2000);
+
+    long total = 0;
+    for (Appointment appointment : book.getAppointments()) {
+      total += appointment.getEndMinute() - appointment.getBeginMinute();
+    }
+    assertThat(columnar.getTotalDurationMinutes(), equalTo(total));
+
+    LocalDateTime begin = MIDNIGHT.plusDays(3);
+    LocalDateTime end = MIDNIGHT.plusDays(5);
+    long duration = 0;
+    for (Appointment appointment : book.beginningBetween(begin, end)) {
+      duration += appointment.getEndMinute() - appointment.getBeginMinute();
+    }
+    assertThat(asText(columnar.beginningBetween(begin, end)), equalTo(asText(book.beginningBetween(begin, end))));
+    assertThat(columnar.getDurationMinutesBeginningBetween(begin, end), equalTo(duration));
+  }
+
+  /**
+   * Tests that appointments added in batches of different sizes between reads, both
+   * before and after the appointments already in the book, are merged into sorted order.
+   */
+  @Test
+  void appointmentsAddedBetweenReadsAreMergedInOrder() {
+    Random random = new Random(503);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    ColumnarAppointmentBook columnar = new ColumnarAppointmentBook("Tanya");
+    for (int batch = 0; batch < 40; batch++) {
+      int count = random.nextInt(batch % 4 == 0 ? 300 : 5);
+      for (int i = 0; i < count; i++) {
+        int begin = random.nextInt(60 * 24 * 30) / 15 * 15;
+        Appointment appointment = new Appointment("Appointment " + random.nextInt(20),
+          MIDNIGHT.plusMinutes(begin), MIDNIGHT.plusMinutes(begin + random.nextInt(600)));
+        columnar.addAppointment(appointment);
+        book.addAppointment(appointment);
+      }
+      assertThat(asText(columnar.getAppointments()), equalTo(asText(book.getAppointments())));
+    }
+  }
+
+  /**
+   * Tests that the whole-book view follows the book as it grows, and that a range view
+   * cannot be read once an appointment has been added.
+   */
+  @Test
+  void rangeViewsAreInvalidatedByAddingAppointments() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    ColumnarAppointmentBook columnar = fillBooks(book, 100);
+    Collection<Appointment> all = columnar.getAppointments();
+    List<Appointment> range = columnar.beginningBetween(MIDNIGHT.plusDays(3), MIDNIGHT.plusDays(5));
+    assertThat(asText(range), equalTo(asText(book.beginningBetween(MIDNIGHT.plusDays(3), MIDNIGHT.plusDays(5)))));
+
+    Appointment first = new Appointment("Early", MIDNIGHT.minusDays(1), MIDNIGHT);
+    columnar.addAppointment(first);
+    book.addAppointment(first);
+
+    assertThat(asText(all), equalTo(asText(book.getAppointments())));
+    assertThrows(ConcurrentModificationException.class, range::size);
+    assertThrows(ConcurrentModificationException.class, () -> range.get(0));
+  }
+
+  /**
+   * Tests that iterating over the whole book fails fast when an appointment is added
+   * during the iteration, instead of skipping or repeating appointments.
+   */
+  @Test
+  void iteratorsFailFastWhenAppointmentsAreAdded() {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    ColumnarAppointmentBook columnar = fillBooks(book, 100);
+
+    assertThrows(ConcurrentModificationException.class, () -> {
+      for (Appointment appointment : columnar.getAppointments()) {
+        columnar.addAppointment(new Appointment("Early", MIDNIGHT.minusDays(1), MIDNIGHT));
+      }
+    });
+    assertThat(columnar.size(), equalTo(101));
+  }
+
+  /**
+   * Tests that a columnar book can be dumped by {@link TextDumper} and parsed back.
+   */
+  @Test
+  void columnarBookCanBeDumpedAsText() throws ParserException {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    ColumnarAppointmentBook columnar = fillBooks(book, 100);
+
+    StringWriter sw = new StringWriter();
+    new TextDumper(sw).dump(columnar);
+    AppointmentBook parsed = new TextParser(new StringReader(sw.toString())).parse();
+
+    assertThat(parsed.getOwnerName(), equalTo("Tanya"));
+    assertThat(asText(parsed.getAppointments()), equalTo(asText(book.getAppointments())));
+  }
+}
@@ -0,0 +1,168 @@
+package edu.pdx.cs.joy.tk24;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Unit tests for the {@link ConcurrentAppointmentBook} class.
+ */
+public class ConcurrentAppointmentBookTest {
+
+  private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+  /**
+   * Tests that appointments are returned in sorted order, that equal appointments are
+   * all kept, and that begin-time range views contain the right appointments.
+   */
+  @Test
+  void appointmentsAreReturnedInSortedOrder() {
+    Random random = new Random(410);
+    ConcurrentAppointmentBook book = new ConcurrentAppointmentBook("Tanya");
+    AppointmentBook expected = new AppointmentBook("Tanya");
+    for (int i = 0; i < 1000; i++) {
+      int begin = random.nextInt(60 * 24 * 30) / 15 * 15;
+      Appointment appointment = new Appointment("Appointment " + random.nextInt(10),
+        MIDNIGHT.plusMinutes(begin), MIDNIGHT.plusMinutes(begin + random.nextInt(4) * 15));
+      book.addAppointment(appointment);
+      expected.addAppointment(appointment);
+    }
+
+    assertThat(book.getAppointments().size(), equalTo(1000));
+    assertThat(asText(book.getAppointments()), equalTo(asText(expected.getAppointments())));
+
+    LocalDateTime begin = MIDNIGHT.plusDays(3);
+    LocalDateTime end = MIDNIGHT.plusDays(5);
+    assertThat(asText(book.beginningBetween(begin, end)), equalTo(asText(expected.beginningBetween(begin, end))));
+    assertThat(book.beginningBetween(end, begin).size(), equalTo(0));
+  }
+
+  /**
+   * Tests that a book, including equal appointments, can be serialized and read back,
+   * and that appointments can still be added to the book that was read.
+   *
+   * @throws IOException            If the book cannot be written or read
+   * @throws ClassNotFoundException If a class in the stream cannot be found
+   */
+  @Test
+  void bookCanBeSerialized() throws IOException, ClassNotFoundException {
+    ConcurrentAppointmentBook book = new ConcurrentAppointmentBook("Tanya");
+    Appointment lunch = new Appointment("Lunch", MIDNIGHT.plusHours(12), MIDNIGHT.plusHours(13));
+    book.addAppointment(lunch);
+    book.addAppointment(lunch);
+    book.addAppointment(new Appointment("Breakfast", MIDNIGHT.plusHours(8), MIDNIGHT.plusHours(9)));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(book);
+    }
+    ConcurrentAppointmentBook read;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      read = (ConcurrentAppointmentBook) in.readObject();
+    }
+
+    assertThat(read.getOwnerName(), equalTo("Tanya"));
+    assertThat(asText(read.getAppointments()), equalTo(asText(book.getAppointments())));
+    read.addAppointment(lunch);
+    assertThat(read.getAppointments().size(), equalTo(4));
+  }
+
+  /**
+   * Adds appointments from many threads at once while other threads read the book, and
+   * tests that no appointment is lost and that readers always see sorted appointments.
+   */
+  @Test
+  void noAppointmentsAreLostUnderContention() throws Exception {
+    int writers = 8;
+    int appointmentsPerWriter = 20_000;
+    ConcurrentAppointmentBook book = new ConcurrentAppointmentBook("Tanya");
+    ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean writing = new AtomicBoolean(true);
+
+    List<Future<?>> writes = new ArrayList<>();
+    for (int writer = 0; writer < writers; writer++) {
+      String description = "Writer " + writer;
+      writes.add(executor.submit(() -> {
+        start.await();
+        Random random = new Random();
+        for (int i = 0; i < appointmentsPerWriter; i++) {
+          LocalDateTime begin = MIDNIGHT.plusMinutes(random.nextInt(60 * 24));
+          book.addAppointment(new Appointment(description + " #" + i, begin, begin.plusMinutes(30)));
+        }
+        return null;
+      }));
+    }
+
+    List<Future<Integer>> reads = new ArrayList<>();
+    for (int reader = 0; reader < 2; reader++) {
+      reads.add(executor.submit(() -> {
+        start.await();
+        int unsorted = 0;
+        while (writing.get()) {
+          Appointment previous = null;
+          for (Appointment appointment : book.getAppointments()) {
+            if (previous != null && previous.compareTo(appointment) > 0) {
+              unsorted++;
+            }
+            previous = appointment;
+          }
+        }
+        return unsorted;
+      }));
+    }
+
+    start.countDown();
+    for (Future<?> write : writes) {
+      write.get(1, TimeUnit.MINUTES);
+    }
+    writing.set(false);
+    for (Future<Integer> read : reads) {
+      assertThat(read.get(1, TimeUnit.MINUTES), equalTo(0));
+    }
+    executor.shutdown();
+
+    Set<String> descriptions = new HashSet<>();
+    Appointment previous = null;
+    for (Appointment appointment : book.getAppointments()) {
+      descriptions.add(appointment.getDescription());
+      if (previous != null) {
+        assertThat(previous.compareTo(appointment), lessThanOrEqualTo(0));
+      }
+      previous = appointment;
+    }
+    assertThat(book.getAppointments().size(), equalTo(writers * appointmentsPerWriter));
+    assertThat(descriptions.size(), equalTo(writers * appointmentsPerWriter));
+  }
+
+  /**
+   * Returns the descriptions and times of appointments, which identify them by value.
+   */
+  private static List<String> asText(Iterable<Appointment> appointments) {
+    List<String> text = new ArrayList<>();
+    for (Appointment appointment : appointments) {
+      text.add(appointment.toString());
+    }
+    return text;
+  }
+}
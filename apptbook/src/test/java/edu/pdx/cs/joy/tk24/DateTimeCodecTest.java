@@ -0,0 +1,152 @@
+package edu.pdx.cs.joy.tk24;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link DateTimeCodec} class, which check it against a
+ * {@link DateTimeFormatter} for the same pattern.
+ */
+public class DateTimeCodecTest {
+
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mm a", Locale.US);
+
+  private static final String[] MONTHS_AND_DAYS = twoDigitNumbers(33);
+  private static final String[] YEARS = {"0000", "0001", "1899", "1900", "1970", "2000", "2024", "2025", "9999"};
+  private static final String[] HOURS = {
+    "0", "1", "2", "9", "10", "11", "12", "13", "00", "01", "09", "1a", "x"
+  };
+  private static final String[] MINUTES = {"00", "07", "59", "60", "5"};
+  private static final String[] MARKERS = {"AM", "PM", "am", "Pm", "XM"};
+
+  private static String[] twoDigitNumbers(int count) {
+    String[] numbers = new String[count];
+    for (int i = 0; i < count; i++) {
+      numbers[i] = String.format("%02d", i);
+    }
+    return numbers;
+  }
+
+  /**
+   * Returns the text of the result of parsing with the formatter, or of the exception it throws.
+   */
+  private static String parsedByFormatter(String text) {
+    try {
+      return LocalDateTime.parse(text, FORMATTER).toString();
+    } catch (DateTimeParseException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Returns the text of the result of parsing with the codec, or of the exception it throws.
+   */
+  private static String parsedByCodec(String text) {
+    try {
+      return DateTimeCodec.parse(text).toString();
+    } catch (DateTimeParseException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Tests that every combination of valid and invalid months, days, years, hours, minutes
+   * and markers is parsed to the same time, or rejected with the same message, as by a
+   * {@link DateTimeFormatter}.
+   */
+  @Test
+  void parsesEveryCombinationOfFieldsLikeTheFormatter() {
+    for (String year : YEARS) {
+      for (String month : MONTHS_AND_DAYS) {
+        if (Integer.parseInt(month) > 13) {
+          break;
+        }
+        for (String day : MONTHS_AND_DAYS) {
+          for (String hour : HOURS) {
+            for (String minute : MINUTES) {
+              for (String marker : MARKERS) {
+                String text = month + "/" + day + "/" + year + " " + hour + ":" + minute + " " + marker;
+                assertThat(text + " -> " + parsedByCodec(text), equalTo(text + " -> " + parsedByFormatter(text)));
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests that text with missing, extra or misplaced characters is rejected or accepted
+   * like it is by a {@link DateTimeFormatter}.
+   */
+  @Test
+  void parsesMalformedTextLikeTheFormatter() {
+    String[] texts = {
+      "", "07/30/2025", "07/30/2025 2:00", "07/30/2025 2:00 PM ", " 07/30/2025 2:00 PM",
+      "07-30-2025 2:00 PM", "07/30/2025  2:00 PM", "07/30/2025 2:00PM", "07/30/2025 2.00 PM",
+      "7/30/2025 2:00 PM", "07/3/2025 2:00 PM", "07/30/25 2:00 PM", "07/30/02025 2:00 PM",
+      "07/30/+12025 2:00 PM", "07/30/2025 002:00 PM", "07/30/2025 2:000 PM", "07/30/2025 2:00 PMX",
+      "07/30/2025 12:00 AM", "07/30/2025 12:00 PM", "02/29/2024 11:59 PM", "02/29/2023 11:59 PM"
+    };
+    for (String text : texts) {
+      assertThat(text + " -> " + parsedByCodec(text), equalTo(text + " -> " + parsedByFormatter(text)));
+    }
+  }
+
+  /**
+   * Tests that a date and time can be parsed out of the middle of a longer sequence of
+   * characters, and that an invalid one throws a {@link DateTimeParseException}.
+   */
+  @Test
+  void parsesPartOfASequenceIntoEpochMinutes() {
+    String line = "Lunch|07/30/2025 12:30 PM|07/30/2025 1:30 PM";
+    long begin = DateTimeCodec.parseEpochMinute(line, 6, 25);
+    long end = DateTimeCodec.parseEpochMinute(line, 26, line.length());
+
+    assertThat(begin, equalTo(LocalDateTime.of(2025, 7, 30, 12, 30).toEpochSecond(ZoneOffset.UTC) / 60));
+    assertThat(end - begin, equalTo(60L));
+    assertThrows(DateTimeParseException.class, () -> DateTimeCodec.parseEpochMinute(line, 0, 25));
+  }
+
+  /**
+   * Tests that every minute of a leap year is formatted like it is by a
+   * {@link DateTimeFormatter}, and is parsed back to the same minute.
+   */
+  @Test
+  void formatsEveryMinuteOfALeapYearLikeTheFormatter() {
+    int first = (int) (LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) / 60);
+    char[] buffer = new char[DateTimeCodec.MAX_LENGTH + 3];
+    for (int minute = first; minute < first + 366 * 24 * 60; minute++) {
+      String expected = FORMATTER.format(Appointment.fromEpochMinute(minute));
+      int end = DateTimeCodec.format(minute, buffer, 3);
+      String text = new String(buffer, 3, end - 3);
+
+      assertThat(text, equalTo(expected));
+      assertThat(DateTimeCodec.parseEpochMinute(text), equalTo((long) minute));
+    }
+  }
+
+  /**
+   * Tests that a day in every week that can be stored in an appointment, including years
+   * before 1 AD, is formatted like it is by a {@link DateTimeFormatter}.
+   */
+  @Test
+  void formatsEveryWeekOfTheSupportedRangeLikeTheFormatter() {
+    int step = 7 * 24 * 60 + 13;
+    for (long minute = Integer.MIN_VALUE; minute <= Integer.MAX_VALUE; minute += step) {
+      LocalDateTime time = Appointment.fromEpochMinute(minute);
+      assertThat(DateTimeCodec.format((int) minute), equalTo(FORMATTER.format(time)));
+      assertThat(DateTimeCodec.format(time), equalTo(FORMATTER.format(time)));
+    }
+    assertThat(DateTimeCodec.format(Integer.MAX_VALUE), equalTo(FORMATTER.format(Appointment.fromEpochMinute(Integer.MAX_VALUE))));
+  }
+}
@@ -0,0 +1,71 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Iterator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link DescriptionPool} class.
+ */
+public class DescriptionPoolTest {
+
+  /**
+   * Tests that equal descriptions are canonicalized to the same string and that the
+   * lookups are counted.
+   */
+  @Test
+  void equalDescriptionsShareOneString() {
+    DescriptionPool pool = new DescriptionPool(16);
+    String first = pool.canonicalize(new String("Standup"));
+    String second = pool.canonicalize(new String("Standup"));
+    String third = pool.canonicalize(new String("Standup"));
+
+    assertThat(second, sameInstance(first));
+    assertThat(third, sameInstance(first));
+    assertThat(pool.getLookupCount(), equalTo(3L));
+    assertThat(pool.getDedupRatio(), closeTo(2.0 / 3.0, 1e-9));
+    assertThat(pool.getBytesSaved(), equalTo(2 * (24L + 24L)));
+  }
+
+  /**
+   * Tests that a pool holds no more than its capacity, so that a colliding description
+   * replaces the one that was pooled before it.
+   */
+  @Test
+  void poolIsBoundedByItsCapacity() {
+    DescriptionPool pool = new DescriptionPool(1);
+    String standup = pool.canonicalize("Standup");
+    pool.canonicalize("Lunch");
+
+    assertThat(pool.canonicalize(new String("Standup")), not(sameInstance(standup)));
+    assertThat(pool.getDedupRatio(), equalTo(0.0));
+    assertThrows(IllegalArgumentException.class, () -> new DescriptionPool(0));
+  }
+
+  /**
+   * Tests that the appointments parsed by {@link TextParser} share their repeated descriptions.
+   */
+  @Test
+  void parsedAppointmentsShareDescriptions() throws ParserException {
+    String text = "Tanya\n" +
+      "Standup | 08/01/2025 9:00 AM | 08/01/2025 9:15 AM\n" +
+      "Standup | 08/02/2025 9:00 AM | 08/02/2025 9:15 AM\n";
+    long lookups = DescriptionPool.global().getLookupCount();
+
+    AppointmentBook book = new TextParser(new StringReader(text)).parse();
+
+    Iterator<Appointment> appointments = book.getAppointments().iterator();
+    assertThat(appointments.next().getDescription(), sameInstance(appointments.next().getDescription()));
+    assertThat(DescriptionPool.global().getLookupCount(), greaterThan(lookups));
+  }
+}
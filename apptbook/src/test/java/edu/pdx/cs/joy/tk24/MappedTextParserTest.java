@@ -0,0 +1,130 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link MappedTextParser} class, which check it against a {@link TextParser}.
+ */
+public class MappedTextParserTest {
+
+  private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+  /**
+   * Writes random appointments with a mixture of line endings, blank lines, recurring
+   * appointments and descriptions with characters that are several bytes long.
+   */
+  private static String randomText(Random random, int lines) {
+    String[] descriptions = {"Lunch", " Caf\u00e9 au lait ", "\u4f1a\u8bae", "Standup"};
+    String[] endings = {"\n", "\r\n", "\r", "\n \n"};
+    StringBuilder text = new StringBuilder("Tanya\r\n");
+    for (int i = 0; i < lines; i++) {
+      Appointment appointment = new Appointment(descriptions[random.nextInt(descriptions.length)],
+        MIDNIGHT.plusMinutes(random.nextInt(60 * 24 * 30)), MIDNIGHT.plusMinutes(60 * 24 * 30 + random.nextInt(60)));
+      text.append(appointment.getDescription()).append('|').append(appointment.getBeginTimeString())
+        .append(" | ").append(appointment.getEndTimeString());
+      if (random.nextInt(50) == 0) {
+        text.append("|FREQ=DAILY;COUNT=").append(1 + random.nextInt(5));
+      }
+      text.append(endings[random.nextInt(endings.length)]);
+    }
+    return text.toString();
+  }
+
+  private static Path write(Path directory, String text) throws IOException {
+    return Files.write(directory.resolve("apptbook.txt"), text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Describes the owner and the appointments of a book, so that two books can be compared.
+   */
+  private static List<String> contents(AppointmentBook book) {
+    List<String> contents = new ArrayList<>();
+    contents.add(book.getOwnerName());
+    for (Appointment appointment : book.getOneTimeAppointments()) {
+      contents.add(appointment.getDescription() + " " + appointment.getSortKey());
+    }
+    for (RecurringAppointment appointment : book.getRecurringAppointments()) {
+      contents.add(appointment.getDescription() + " " + appointment.getBeginTime() + " " + appointment.getRule());
+    }
+    return contents;
+  }
+
+  /**
+   * Tests that a file split into chunks of many different sizes, some of which end in
+   * the middle of a line, a character or a carriage return and line feed, is parsed into
+   * the same book as by a {@link TextParser}.
+   *
+   * @param directory A directory for the file
+   * @throws IOException     If the file cannot be written
+   * @throws ParserException If the file cannot be parsed
+   */
+  @Test
+  void parsesChunksLikeTextParser(@TempDir Path directory) throws IOException, ParserException {
+    String text = randomText(new Random(410), 2000);
+    Path file = write(directory, text);
+    List<String> expected = contents(new TextParser(new StringReader(text)).parse());
+
+    for (int chunkSize : new int[] {1, 7, 64, 1000, 100_000}) {
+      AppointmentBook book = new MappedTextParser(file, StandardCharsets.UTF_8, chunkSize).parse();
+      assertThat(contents(book), equalTo(expected));
+    }
+    assertThat(contents(new MappedTextParser(file, StandardCharsets.UTF_8).parse()), equalTo(expected));
+  }
+
+  /**
+   * Tests that files with only an owner, or with nothing at all, are handled like they are
+   * by a {@link TextParser}.
+   *
+   * @param directory A directory for the file
+   * @throws IOException     If the file cannot be written
+   * @throws ParserException If the file cannot be parsed
+   */
+  @Test
+  void parsesOwnerOnlyAndEmptyFiles(@TempDir Path directory) throws IOException, ParserException {
+    for (String text : new String[] {"Tanya", "Tanya\n", "Tanya\r\n\r\n", "\n"}) {
+      AppointmentBook book = new MappedTextParser(write(directory, text), StandardCharsets.UTF_8, 1).parse();
+      assertThat(contents(book), equalTo(contents(new TextParser(new StringReader(text)).parse())));
+    }
+
+    Path empty = write(directory, "");
+    ParserException e = assertThrows(ParserException.class, () -> new MappedTextParser(empty).parse());
+    assertThat(e.getMessage(), equalTo("Missing owner"));
+  }
+
+  /**
+   * Tests that when lines in several chunks are malformed, the exception is the one that
+   * a {@link TextParser} throws for the first of them.
+   *
+   * @param directory A directory for the file
+   * @throws IOException If the file cannot be written
+   */
+  @Test
+  void reportsTheFirstMalformedLine(@TempDir Path directory) throws IOException {
+    Random random = new Random(410);
+    String text = randomText(random, 500) + "Dentist|08/01/2025 3:00 PM\n"
+      + randomText(random, 500).substring("Tanya\r\n".length()) + "Dinner|08/01/2025 6:00 PM|noon\n";
+    Path file = write(directory, text);
+
+    ParserException expected = assertThrows(ParserException.class,
+      () -> new TextParser(new StringReader(text)).parse());
+    ParserException actual = assertThrows(ParserException.class,
+      () -> new MappedTextParser(file, StandardCharsets.UTF_8, 100).parse());
+    assertThat(actual.getMessage(), equalTo(expected.getMessage()));
+  }
+}
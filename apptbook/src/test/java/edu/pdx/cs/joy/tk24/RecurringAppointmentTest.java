@@ -0,0 +1,164 @@
+package edu.pdx.cs.joy.tk24;
+
+import edu.pdx.cs.joy.ParserException;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link RecurringAppointment} class and for recurring appointments
+ * in an {@link AppointmentBook}.
+ */
+public class RecurringAppointmentTest {
+
+  private static final LocalDateTime STANDUP = LocalDateTime.of(2025, 8, 4, 9, 0);
+
+  /**
+   * Returns the descriptions and times of appointments, which identify them by value.
+   */
+  private static List<String> asText(Iterable<Appointment> appointments) {
+    List<String> text = new ArrayList<>();
+    for (Appointment appointment : appointments) {
+      text.add(appointment.toString());
+    }
+    return text;
+  }
+
+  /**
+   * Returns the occurrences of a recurring appointment as separate appointments.
+   */
+  private static List<Appointment> materialize(RecurringAppointment series) {
+    List<Appointment> occurrences = new ArrayList<>();
+    series.occurrences().forEachRemaining(occurrences::add);
+    return occurrences;
+  }
+
+  /**
+   * Tests that a weekly appointment occurs on the right dates, skipping its exceptions.
+   */
+  @Test
+  void weeklyAppointmentSkipsExceptions() {
+    RecurringAppointment series = new RecurringAppointment("Standup", STANDUP, STANDUP.plusMinutes(15),
+      RecurringAppointment.Frequency.WEEKLY, 2, 4, List.of(LocalDate.of(2025, 8, 18), LocalDate.of(2025, 8, 19)));
+
+    List<Appointment> occurrences = materialize(series);
+    assertThat(series.size(), equalTo(3));
+    assertThat(occurrences.size(), equalTo(3));
+    assertThat(occurrences.get(0).getBeginTime(), equalTo(STANDUP));
+    assertThat(occurrences.get(1).getBeginTime(), equalTo(STANDUP.plusWeeks(4)));
+    assertThat(occurrences.get(2).getEndTime(), equalTo(STANDUP.plusWeeks(6).plusMinutes(15)));
+    assertThat(series.getRule(), equalTo("FREQ=WEEKLY;INTERVAL=2;COUNT=4;EXDATE=08/18/2025"));
+  }
+
+  /**
+   * Tests that a daily appointment repeats until and including its last date.
+   */
+  @Test
+  void dailyAppointmentRepeatsUntilItsLastDate() {
+    RecurringAppointment series = RecurringAppointment.parse("Lunch", STANDUP.withHour(12), STANDUP.withHour(13),
+      "FREQ=DAILY;UNTIL=08/10/2025");
+
+    assertThat(series.size(), equalTo(7));
+    assertThat(materialize(series).get(6).getBeginTime(), equalTo(STANDUP.withHour(12).plusDays(6)));
+    assertThrows(IllegalArgumentException.class,
+      () -> RecurringAppointment.parse("Lunch", STANDUP, STANDUP, "FREQ=DAILY"));
+    assertThrows(IllegalArgumentException.class,
+      () -> RecurringAppointment.parse("Lunch", STANDUP, STANDUP, "FREQ=MONTHLY;COUNT=2"));
+    assertThrows(IllegalArgumentException.class,
+      () -> RecurringAppointment.parse("Lunch", STANDUP, STANDUP, "FREQ=DAILY;UNTIL=08/01/2025"));
+  }
+
+  /**
+   * Tests that iteration and range queries of a book with recurring appointments agree
+   * with a book in which every occurrence was added as its own appointment.
+   */
+  @Test
+  void bookQueriesAgreeWithMaterializedOccurrences() {
+    Random random = new Random(410);
+    AppointmentBook book = new AppointmentBook("Tanya");
+    AppointmentBook materialized = new AppointmentBook("Tanya");
+    for (int i = 0; i < 50; i++) {
+      LocalDateTime begin = STANDUP.plusMinutes(random.nextInt(60 * 24 * 60) / 15 * 15);
+      Appointment appointment = new Appointment("One time " + i, begin, begin.plusMinutes(random.nextInt(240)));
+      book.addAppointment(appointment);
+      materialized.addAppointment(appointment);
+    }
+    for (int i = 0; i < 20; i++) {
+      LocalDateTime begin = STANDUP.plusMinutes(random.nextInt(60 * 24 * 14) / 15 * 15);
+      List<LocalDate> exceptions = List.of(begin.toLocalDate().plusDays(random.nextInt(30)));
+      RecurringAppointment series = new RecurringAppointment("Series " + i, begin,
+        begin.plusMinutes(random.nextInt(24 * 60)), RecurringAppointment.Frequency.values()[i % 2],
+        1 + random.nextInt(3), 1 + random.nextInt(40), exceptions);
+      book.addRecurringAppointment(series);
+      materialized.addAll(materialize(series));
+    }
+
+    assertThat(book.getAppointments().size(), equalTo(materialized.getAppointments().size()));
+    assertThat(asText(book.getAppointments()), equalTo(asText(materialized.getAppointments())));
+    assertThat(book.findConflicts().getConflictingAppointmentCount(),
+      equalTo(materialized.findConflicts().getConflictingAppointmentCount()));
+
+    for (int i = 0; i < 200; i++) {
+      LocalDateTime begin = STANDUP.plusMinutes(random.nextInt(60 * 24 * 100) - 60 * 24 * 5);
+      LocalDateTime end = begin.plusMinutes(random.nextInt(60 * 24 * 10));
+
+      assertThat(book.beginningBetween(begin, end).size(), equalTo(materialized.beginningBetween(begin, end).size()));
+      assertThat(asText(book.beginningBetween(begin, end)), equalTo(asText(materialized.beginningBetween(begin, end))));
+      assertThat(asText(book.findOverlapping(begin, end)), equalTo(asText(materialized.findOverlapping(begin, end))));
+    }
+
+    for (int day = -2; day < 300; day++) {
+      LocalDate date = STANDUP.toLocalDate().plusDays(day);
+      assertThat(asText(book.getAppointmentsOn(date)), equalTo(asText(materialized.getAppointmentsOn(date))));
+    }
+    LocalDate week = STANDUP.toLocalDate().plusDays(10);
+    assertThat(asText(book.getAppointmentsOnDays(week, week.plusDays(6))),
+      equalTo(asText(materialized.getAppointmentsOnDays(week, week.plusDays(6)))));
+  }
+
+  /**
+   * Tests that a recurring appointment is written by {@link TextDumper} as one line with its
+   * rule and is read back by {@link TextParser}.
+   */
+  @Test
+  void recurringAppointmentCanBeDumpedAndParsed() throws ParserException {
+    AppointmentBook book = new AppointmentBook("Tanya");
+    book.addAppointment(new Appointment("Dentist", STANDUP.plusHours(5), STANDUP.plusHours(6)));
+    book.addRecurringAppointment(new RecurringAppointment("Standup", STANDUP, STANDUP.plusMinutes(15),
+      RecurringAppointment.Frequency.DAILY, 1, LocalDate.of(2025, 12, 19), List.of(LocalDate.of(2025, 11, 27))));
+
+    StringWriter sw = new StringWriter();
+    new TextDumper(sw).dump(book);
+    String text = sw.toString();
+    assertThat(text.split("\n").length, equalTo(3));
+
+    AppointmentBook parsed = new TextParser(new StringReader(text)).parse();
+    assertThat(parsed.getRecurringAppointments().get(0).getRule(),
+      equalTo("FREQ=DAILY;UNTIL=12/19/2025;EXDATE=11/27/2025"));
+    assertThat(asText(parsed.getAppointments()), equalTo(asText(book.getAppointments())));
+
+    Iterator<Appointment> appointments = parsed.getAppointments().iterator();
+    assertThat(appointments.next().getDescription(), equalTo("Standup"));
+    assertThat(appointments.next().getDescription(), equalTo("Dentist"));
+  }
+
+  /**
+   * Tests that a line with a malformed recurrence rule causes a {@link ParserException}.
+   */
+  @Test
+  void malformedRecurrenceRuleThrowsParserException() {
+    String text = "Tanya\nStandup|08/04/2025 9:00 AM|08/04/2025 9:15 AM|FREQ=WEEKLY;COUNT=two\n";
+    assertThrows(ParserException.class, () -> new TextParser(new StringReader(text)).parse());
+  }
+}
@@ -3,11 +3,21 @@ package edu.pdx.cs.joy.tk24;
 import edu.pdx.cs.joy.ParserException;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -59,4 +69,196 @@ public class TextParserTest {
     assertThat(book.getOwnerName(), equalTo("Test Appointment Book"));
     assertThat(book.getAppointments().size(), equalTo(0));
   }
+
+  /**
+   * Tests that a parser that drops duplicates keeps only the first of several equal
+   * lines, and that the default parser keeps them all.
+   *
+   * @throws ParserException If parsing fails unexpectedly.
+   */
+  @Test
+  void duplicateLinesCanBeDropped() throws ParserException {
+    String input = "Tanya\n"
+      + "Lunch|08/01/2025 12:00 PM|08/01/2025 1:00 PM\n"
+      + "Dentist|08/01/2025 3:00 PM|08/01/2025 4:00 PM\n"
+      + " Lunch | 08/01/2025 12:00 PM | 08/01/2025 1:00 PM\n";
+
+    assertThat(new TextParser(new StringReader(input)).parse().getAppointments().size(), equalTo(3));
+    assertThat(new TextParser(new StringReader(input), true).parse().getAppointments().size(), equalTo(2));
+  }
+
+  /**
+   * Tests that a streaming parse passes the owner first and then each appointment in
+   * the order of the lines, and that the appointments before a malformed line have
+   * already been passed on when it fails.
+   *
+   * @throws ParserException If parsing fails unexpectedly.
+   */
+  @Test
+  void appointmentsCanBeStreamedWithoutABook() throws ParserException {
+    String input = "Tanya\n"
+      + "Lunch|08/01/2025 12:00 PM|08/01/2025 1:00 PM\n"
+      + "Standup|08/01/2025 9:00 AM|08/01/2025 9:15 AM|FREQ=DAILY;COUNT=5\n"
+      + "Dentist|08/01/2025 3:00 PM|08/01/2025 4:00 PM\n";
+    List<String> events = new ArrayList<>();
+    TextParser.Listener listener = new TextParser.Listener() {
+      @Override
+      public void owner(String owner) {
+        events.add("owner " + owner);
+      }
+
+      @Override
+      public void appointment(Appointment appointment) {
+        events.add(appointment.getDescription());
+      }
+    };
+
+    new TextParser(new StringReader(input)).parse(listener);
+    assertThat(events, contains("owner Tanya", "Lunch", "Dentist"));
+
+    events.clear();
+    String malformed = input + "Dinner|08/01/2025 6:00 PM\n";
+    assertThrows(ParserException.class, () -> new TextParser(new StringReader(malformed)).parse(listener));
+    assertThat(events, contains("owner Tanya", "Lunch", "Dentist"));
+  }
+
+  private static String describe(RecurringAppointment appointment) {
+    return appointment.getDescription() + " " + appointment.getBeginTime() + " " + appointment.getRule();
+  }
+
+  /**
+   * Parses text with a {@link BufferedReader} and {@link String#split}, as the parser
+   * used to, and describes the result.
+   */
+  private static List<String> parsedBySplitting(String input) throws IOException {
+    List<String> events = new ArrayList<>();
+    BufferedReader br = new BufferedReader(new StringReader(input));
+    String line = br.readLine();
+    if (line == null) {
+      events.add("Missing owner");
+      return events;
+    }
+    events.add("owner " + line);
+    while ((line = br.readLine()) != null) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      String[] fields = line.split("\\|");
+      if (fields.length != 3 && fields.length != 4) {
+        events.add("Invalid line format");
+        return events;
+      }
+      try {
+        LocalDateTime begin = DateTimeCodec.parse(fields[1].trim());
+        LocalDateTime end = DateTimeCodec.parse(fields[2].trim());
+        if (fields.length == 4) {
+          events.add(describe(RecurringAppointment.parse(fields[0].trim(), begin, end, fields[3].trim())));
+        } else {
+          events.add(new Appointment(fields[0].trim(), begin, end).toString());
+        }
+      } catch (DateTimeParseException e) {
+        events.add("Invalid date/time format in line: " + line);
+        return events;
+      } catch (IllegalArgumentException e) {
+        events.add("Invalid appointment in line: " + line);
+        return events;
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Parses text with the streaming parser, reading it a few characters at a time, and
+   * describes the result in the same way as {@link #parsedBySplitting}.
+   */
+  private static List<String> parsedByTokenizing(String input, int charsPerRead) {
+    List<String> events = new ArrayList<>();
+    Reader reader = new StringReader(input) {
+      @Override
+      public int read(char[] buffer, int offset, int length) throws IOException {
+        return super.read(buffer, offset, Math.min(length, charsPerRead));
+      }
+    };
+    try {
+      new TextParser(reader).parse(new TextParser.Listener() {
+        @Override
+        public void owner(String owner) {
+          events.add("owner " + owner);
+        }
+
+        @Override
+        public void appointment(Appointment appointment) {
+          events.add(appointment.toString());
+        }
+
+        @Override
+        public void recurringAppointment(RecurringAppointment appointment) {
+          events.add(describe(appointment));
+        }
+      });
+    } catch (ParserException e) {
+      events.add(e.getMessage());
+    }
+    return events;
+  }
+
+  /**
+   * Tests that random lines made of valid and invalid fields, separators, blanks and line
+   * endings are parsed into the same appointments, or rejected with the same message, as
+   * by splitting each line with a regular expression.
+   *
+   * @throws IOException If the text cannot be read
+   */
+  @Test
+  void tokenizingAgreesWithSplittingLines() throws IOException {
+    String[] descriptions = {"Lunch", " Lunch with  friends ", "", " ", "|||", "\t"};
+    String[] times = {"08/01/2025 12:00 PM", " 08/01/2025 1:00 PM ", "08/01/2025 11:00 AM", "8/1/2025 1:00 PM", ""};
+    String[] rules = {"FREQ=DAILY;COUNT=3", " FREQ=WEEKLY ", "FREQ=SOMETIMES", " "};
+    String[] separators = {"|", "|", "|", "||", " | "};
+    String[] tails = {"", "", "", "|", "||", " ", "| ", "|\t|"};
+    String[] endings = {"\n", "\r\n", "\r", "\n\n", " \n", "\r\r\n", "\n \t\n"};
+    Random random = new Random(410);
+    for (int i = 0; i < 20000; i++) {
+      StringBuilder input = new StringBuilder();
+      if (random.nextInt(20) > 0) {
+        input.append("Tanya").append(endings[random.nextInt(endings.length)]);
+      }
+      int lines = random.nextInt(5);
+      for (int j = 0; j < lines; j++) {
+        input.append(descriptions[random.nextInt(descriptions.length)]);
+        input.append(separators[random.nextInt(separators.length)]);
+        input.append(times[random.nextInt(times.length)]);
+        input.append(separators[random.nextInt(separators.length)]);
+        input.append(times[random.nextInt(times.length)]);
+        if (random.nextInt(3) == 0) {
+          input.append(separators[random.nextInt(separators.length)]);
+          input.append(rules[random.nextInt(rules.length)]);
+        }
+        input.append(tails[random.nextInt(tails.length)]);
+        if (j < lines - 1 || random.nextBoolean()) {
+          input.append(endings[random.nextInt(endings.length)]);
+        }
+      }
+      String text = input.toString();
+      List<String> tokenized = parsedByTokenizing(text, 1 + random.nextInt(5));
+      assertThat(text + " -> " + tokenized, equalTo(text + " -> " + parsedBySplitting(text)));
+    }
+  }
+
+  /**
+   * Tests that lines that are longer than the parser's buffer are parsed in full.
+   *
+   * @throws ParserException If parsing fails unexpectedly.
+   */
+  @Test
+  void linesLongerThanTheBufferAreParsed() throws ParserException {
+    char[] longDescription = new char[20000];
+    Arrays.fill(longDescription, 'x');
+    String description = new String(longDescription);
+    String input = description + "\r\n" + description + "|08/01/2025 12:00 PM|08/01/2025 1:00 PM";
+
+    AppointmentBook book = new TextParser(new StringReader(input)).parse();
+    assertThat(book.getOwnerName(), equalTo(description));
+    assertThat(book.getAppointments().iterator().next().getDescription(), equalTo(description));
+  }
 }